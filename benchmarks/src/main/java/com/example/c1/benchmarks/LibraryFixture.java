@@ -0,0 +1,98 @@
+package com.example.c1.benchmarks;
+
+import com.example.c1.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Библиотека заданного размера в отдельном временном каталоге под каждый бэкенд.
+// Данные строит LibraryGenerator с фиксированным seed, поэтому прогоны сравнимы между собой
+public class LibraryFixture {
+    public enum Backend {
+        H2_FILE, H2_MEMORY, SQLITE, CSV
+    }
+
+    private static final long SEED = 42;
+
+    private final Path directory;
+    private final MovieDAO dao;
+    private final String jdbcUrl;
+
+    private LibraryFixture(Path directory, MovieDAO dao, String jdbcUrl) {
+        this.directory = directory;
+        this.dao = dao;
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public static LibraryFixture create(Backend backend, int size) throws IOException {
+        Path directory = Files.createTempDirectory("c1-bench-" + backend.name().toLowerCase(Locale.ROOT));
+        MovieDAO dao;
+        String jdbcUrl = null;
+        switch (backend) {
+            case H2_FILE: {
+                String url = "jdbc:h2:" + directory.resolve("bench").toAbsolutePath();
+                dao = new MovieH2DAO(url);
+                jdbcUrl = url;
+                seed(dao, size);
+                break;
+            }
+            case H2_MEMORY: {
+                String url = "jdbc:h2:mem:bench" + System.nanoTime();
+                dao = new MovieH2DAO(url);
+                jdbcUrl = url;
+                seed(dao, size);
+                break;
+            }
+            case SQLITE: {
+                Path file = directory.resolve("bench.db");
+                dao = new MovieSQLiteDAO(file.toString());
+                jdbcUrl = "jdbc:sqlite:" + file;
+                seed(dao, size);
+                break;
+            }
+            case CSV: {
+                // Файл пишется напрямую: addMovies переписывал бы его целиком на каждую пачку
+                Path file = directory.resolve("bench.csv");
+                GenreDAO genres = new GenreListImpl();
+                DirectorDAO directors = new DirectorListImpl();
+                LibraryGenerator generator = new LibraryGenerator(SEED, genres.getAllGenres(), directors.getAllDirectors());
+                generator.writeCsv(file.toString(), size);
+                dao = new MovieCSVDAO(genres, directors, file.toString());
+                dao.addSchedules(generator.schedulesFor(dao.getAllMovies()));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+        return new LibraryFixture(directory, dao, jdbcUrl);
+    }
+
+    public MovieDAO dao() {
+        return dao;
+    }
+
+    // Адрес той же базы для отдельного соединения в обход DAO; у CSV - null.
+    // База в памяти H2 живёт, пока открыто соединение DAO, поэтому второе видит те же данные
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public void delete() {
+        dao.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Error deleting benchmark data: " + e.getMessage());
+        }
+    }
+
+    // Справочники DAO задают допустимые жанры и режиссёров; строки-примеры из схемы входят в размер
+    private static void seed(MovieDAO dao, int size) {
+        int existing = dao.getAllMovies().size();
+        new LibraryGenerator(SEED, dao).writeTo(dao, Math.max(0, size - existing));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.c1.benchmarks;
+
+import com.example.c1.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Колоночные ядра MovieColumns против прежней реализации на потоках поверх List<Movie>.
+// Данные только в памяти, без бэкенда: сравнивается сам проход по библиотеке
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MovieColumnsBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<Movie> movies;
+    private MovieColumns columns;
+    private Genre genre;
+    private Director director;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GenreDAO genres = new GenreListImpl();
+        DirectorDAO directors = new DirectorListImpl();
+        movies = new LibraryGenerator(SEED, genres.getAllGenres(), directors.getAllDirectors()).nextMovies(size);
+        columns = new MovieColumns(movies);
+        genre = movies.get(0).getGenre();
+        director = movies.get(0).getDirector();
+    }
+
+    @Benchmark
+    public List<Movie> filterStream() {
+        return movies.stream()
+                .filter(movie -> movie.getGenre().equals(genre) &&
+                        movie.getImdbRating() >= 7.0 &&
+                        movie.getYear() >= 2000)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Movie> filterColumns() {
+        return columns.filter(genre.getId(), 7.0, 2000);
+    }
+
+    @Benchmark
+    public double directorViewsStream() {
+        long directorViews = movies.stream()
+                .filter(m -> m.getDirector().equals(director))
+                .mapToLong(Movie::getViews)
+                .sum();
+        long totalViews = movies.stream()
+                .mapToLong(Movie::getViews)
+                .sum();
+        return totalViews == 0 ? 0 : (double) directorViews / totalViews * 100;
+    }
+
+    @Benchmark
+    public double directorViewsColumns() {
+        long directorViews = columns.sumViews(director.getId());
+        long totalViews = columns.sumViews();
+        return totalViews == 0 ? 0 : (double) directorViews / totalViews * 100;
+    }
+
+    // Построение снимка входит в цену первого запроса после каждого изменения
+    @Benchmark
+    public MovieColumns buildColumns() {
+        return new MovieColumns(movies);
+    }
+}
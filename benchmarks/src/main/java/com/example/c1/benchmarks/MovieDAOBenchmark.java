@@ -0,0 +1,147 @@
+package com.example.c1.benchmarks;
+
+import com.example.c1.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Базовая линия для всех реализаций MovieDAO: одинаковые данные и операции на каждом бэкенде и размере.
+// Изменяющие операции увеличивают библиотеку не больше чем на число вызовов в прогоне
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MovieDAOBenchmark {
+    @Param({"H2_FILE", "H2_MEMORY", "SQLITE", "CSV"})
+    public LibraryFixture.Backend backend;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private LibraryFixture fixture;
+    private MovieDAO dao;
+    private Movie[] movies;
+    private int[] reminderIds;
+    // Сроки есть только у части фильмов; updateMovieSchedule без срока у H2/SQLite бросает исключение
+    private int[] scheduledIds;
+    private Genre genre;
+    private Director director;
+    private LocalDate today;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = LibraryFixture.create(backend, size);
+        dao = fixture.dao();
+        List<Movie> all = dao.getAllMovies();
+        movies = all.toArray(new Movie[0]);
+        genre = movies[0].getGenre();
+        director = movies[0].getDirector();
+        reminderIds = new int[Math.min(100, movies.length)];
+        for (int i = 0; i < reminderIds.length; i++) {
+            reminderIds[i] = movies[i].getId();
+        }
+        today = LocalDate.now();
+        List<MovieSchedule> schedules = dao.getSchedulesBetween(today.minusYears(10), today.plusYears(10));
+        if (schedules.isEmpty()) {
+            throw new IllegalStateException("Benchmark library has no schedules");
+        }
+        scheduledIds = schedules.stream().mapToInt(MovieSchedule::getMovieId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.delete();
+    }
+
+    private Movie randomMovie() {
+        return movies[random.nextInt(movies.length)];
+    }
+
+    @Benchmark
+    public Movie addMovie() {
+        Movie movie = new Movie(0, "Новый фильм", "New Movie", 2024, 7.5, 0, director, genre);
+        dao.addMovie(movie);
+        return movie;
+    }
+
+    @Benchmark
+    public Movie updateMovie() {
+        Movie movie = randomMovie();
+        movie.setViews(movie.getViews() + 1);
+        dao.updateMovie(movie);
+        return movie;
+    }
+
+    @Benchmark
+    public List<Movie> getAllMovies() {
+        return dao.getAllMovies();
+    }
+
+    @Benchmark
+    public List<Movie> smartSearch() {
+        return dao.smartSearch(genre, 7.0, 2000);
+    }
+
+    @Benchmark
+    public List<Movie> findDuplicatesByTmdb() {
+        return dao.findDuplicatesByTmdb();
+    }
+
+    @Benchmark
+    public double getDirectorViewPercentage() {
+        return dao.getDirectorViewPercentage(director);
+    }
+
+    @Benchmark
+    public int setMovieSchedule() {
+        int movieId = randomMovie().getId();
+        dao.setMovieSchedule(movieId, today.plusDays(random.nextInt(60)));
+        return movieId;
+    }
+
+    @Benchmark
+    public int updateMovieSchedule() {
+        int movieId = scheduledIds[random.nextInt(scheduledIds.length)];
+        dao.updateMovieSchedule(movieId, today.plusDays(random.nextInt(60)), "benchmark");
+        return movieId;
+    }
+
+    @Benchmark
+    public MovieSchedule getMovieSchedule() {
+        return dao.getMovieSchedule(randomMovie().getId());
+    }
+
+    @Benchmark
+    public List<Movie> getMoviesWithUpcomingDeadlines() {
+        return dao.getMoviesWithUpcomingDeadlines(7);
+    }
+
+    @Benchmark
+    public List<MovieSchedule> getSchedulesBetween() {
+        return dao.getSchedulesBetween(today, today.plusDays(30));
+    }
+
+    @Benchmark
+    public int markMovieAsWatched() {
+        int movieId = randomMovie().getId();
+        dao.markMovieAsWatched(movieId);
+        return movieId;
+    }
+
+    @Benchmark
+    public int[] markRemindersSent() {
+        dao.markRemindersSent(reminderIds);
+        return reminderIds;
+    }
+
+    @Benchmark
+    public List<ScheduleChange> getScheduleHistory() {
+        return dao.getScheduleHistory(randomMovie().getId());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.c1.benchmarks;
+
+import com.example.c1.*;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Чтение фильмов из одного и того же запроса тремя способами: по именам колонок через CachedRowSet
+// (как было до MovieRowMapper), по именам колонок прямо из ResultSet и через MovieRowMapper.
+// Счётчик rows даёт строки в секунду; соединение отдельное от DAO, без SqlTracing
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MovieRowMapperBenchmark {
+    @Param({"H2_MEMORY", "H2_FILE", "SQLITE"})
+    public LibraryFixture.Backend backend;
+
+    @Param({"10000", "200000"})
+    public int size;
+
+    private LibraryFixture fixture;
+    private Connection connection;
+    private PreparedStatement statement;
+    private GenreDAO genreDAO;
+    private DirectorDAO directorDAO;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = LibraryFixture.create(backend, size);
+        genreDAO = fixture.dao().getGenreDAO();
+        directorDAO = fixture.dao().getDirectorDAO();
+        connection = DriverManager.getConnection(fixture.jdbcUrl(), "sa", "");
+        // Год у H2 - release_year, у SQLite - year; псевдоним даёт обоим вариантам одни и те же имена
+        String year = backend == LibraryFixture.Backend.SQLITE ? "year" : "release_year";
+        statement = connection.prepareStatement("SELECT id, title, original_title, " + year + " AS release_year, " +
+                "imdb_rating, views, director_id, genre_id FROM movies");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+        fixture.delete();
+    }
+
+    private Movie mapByLabel(ResultSet rs) throws SQLException {
+        return new Movie(
+                rs.getInt("id"),
+                rs.getString("title"),
+                rs.getString("original_title"),
+                rs.getInt("release_year"),
+                rs.getDouble("imdb_rating"),
+                rs.getInt("views"),
+                directorDAO.getDirectorById(rs.getInt("director_id")),
+                genreDAO.getGenreById(rs.getInt("genre_id"))
+        );
+    }
+
+    @Benchmark
+    public List<Movie> labelsCachedRowSet(RowCounter counter) throws SQLException {
+        List<Movie> movies = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery();
+             CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet()) {
+            rowSet.populate(rs);
+            while (rowSet.next()) {
+                movies.add(mapByLabel(rowSet));
+            }
+        }
+        counter.rows += movies.size();
+        return movies;
+    }
+
+    @Benchmark
+    public List<Movie> labelsResultSet(RowCounter counter) throws SQLException {
+        List<Movie> movies = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                movies.add(mapByLabel(rs));
+            }
+        }
+        counter.rows += movies.size();
+        return movies;
+    }
+
+    @Benchmark
+    public List<Movie> rowMapper(RowCounter counter) throws SQLException {
+        List<Movie> movies;
+        try (ResultSet rs = statement.executeQuery()) {
+            movies = new MovieRowMapper(rs, genreDAO, directorDAO).mapAll(rs);
+        }
+        counter.rows += movies.size();
+        return movies;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Рассылка MovieChange подписчикам одного DAO. DAO сообщает об изменении после фиксации,
+// изменения копятся COALESCE_MILLIS и уходят одной пачкой в отдельном потоке, так что запись
+// не ждёт подписчиков. Несколько изменений одного фильма (или его срока) за это время сливаются в одно.
+// Пока подписчиков нет, события не создаются вовсе
+public class ChangeNotifier {
+    private static final long COALESCE_MILLIS = 50;
+    private static final long RELOAD_KEY = Long.MIN_VALUE;
+
+    private final List<MovieChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Ключ: id фильма и вид изменения (сам фильм, плановая дата, просмотр), см. key()
+    private final Map<Long, MovieChange> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService executor;
+    private boolean flushScheduled;
+
+    public synchronized void addListener(MovieChangeListener listener) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "movie-change-notifier");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(MovieChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    public void movieAdded(Movie movie) {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.MOVIE_ADDED, movie.getId(), MovieChange.copyOf(movie), null));
+        }
+    }
+
+    public void moviesAdded(List<Movie> movies) {
+        if (hasListeners()) {
+            movies.forEach(this::movieAdded);
+        }
+    }
+
+    public void movieUpdated(Movie movie) {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.MOVIE_UPDATED, movie.getId(), MovieChange.copyOf(movie), null));
+        }
+    }
+
+    public void movieDeleted(int movieId) {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.MOVIE_DELETED, movieId, null, null));
+        }
+    }
+
+    public void scheduleSet(int movieId, LocalDate plannedDate) {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.SCHEDULE_SET, movieId, null, plannedDate));
+        }
+    }
+
+    public void scheduleRescheduled(int movieId, LocalDate newDate) {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.SCHEDULE_RESCHEDULED, movieId, null, newDate));
+        }
+    }
+
+    public void scheduleCompleted(int movieId, LocalDate completionDate) {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.SCHEDULE_COMPLETED, movieId, null, completionDate));
+        }
+    }
+
+    public void schedulesAdded(List<MovieSchedule> schedules) {
+        if (!hasListeners()) {
+            return;
+        }
+        for (MovieSchedule schedule : schedules) {
+            scheduleSet(schedule.getMovieId(), schedule.getPlannedDate());
+            if (schedule.getCompletionDate() != null) {
+                scheduleCompleted(schedule.getMovieId(), schedule.getCompletionDate());
+            }
+        }
+    }
+
+    public void libraryReloaded() {
+        if (hasListeners()) {
+            publish(new MovieChange(MovieChange.Type.LIBRARY_RELOADED, 0, null, null));
+        }
+    }
+
+    // Уже запланированная пачка доставляется, новые изменения после закрытия не рассылаются
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private synchronized void publish(MovieChange change) {
+        if (executor == null || executor.isShutdown()) {
+            return;
+        }
+        if (change.getType() == MovieChange.Type.LIBRARY_RELOADED) {
+            // Всё накопленное теряет смысл: подписчики всё равно перечитают источник
+            pending.clear();
+            pending.put(RELOAD_KEY, change);
+        } else {
+            int movieId = change.getMovieId();
+            if (change.getType() == MovieChange.Type.MOVIE_DELETED) {
+                // Сроки удаляются вместе с фильмом
+                pending.remove(key(movieId, MovieChange.Type.SCHEDULE_SET));
+                pending.remove(key(movieId, MovieChange.Type.SCHEDULE_COMPLETED));
+            } else if (change.getType() == MovieChange.Type.SCHEDULE_SET) {
+                // Новый срок сбрасывает отметку о просмотре
+                pending.remove(key(movieId, MovieChange.Type.SCHEDULE_COMPLETED));
+            }
+            // Сведённое изменение остаётся на месте первого: порядок пачки - порядок первых изменений
+            pending.compute(key(movieId, change.getType()), (key, previous) -> merge(previous, change));
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(this::flush, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static long key(int movieId, MovieChange.Type type) {
+        int kind;
+        switch (type) {
+            case SCHEDULE_SET:
+            case SCHEDULE_RESCHEDULED:
+                kind = 1;
+                break;
+            case SCHEDULE_COMPLETED:
+                kind = 2;
+                break;
+            default:
+                kind = 0;
+        }
+        return (long) movieId * 3 + kind;
+    }
+
+    // Итог двух изменений одного ключа с точки зрения подписчика; null - изменений не было
+    static MovieChange merge(MovieChange previous, MovieChange next) {
+        if (previous == null) {
+            return next;
+        }
+        MovieChange.Type before = previous.getType();
+        switch (next.getType()) {
+            case MOVIE_UPDATED:
+                return before == MovieChange.Type.MOVIE_ADDED
+                        ? new MovieChange(MovieChange.Type.MOVIE_ADDED, next.getMovieId(), next.getMovie(), null)
+                        : next;
+            case MOVIE_DELETED:
+                return before == MovieChange.Type.MOVIE_ADDED ? null : next;
+            case MOVIE_ADDED:
+                return before == MovieChange.Type.MOVIE_DELETED
+                        ? new MovieChange(MovieChange.Type.MOVIE_UPDATED, next.getMovieId(), next.getMovie(), null)
+                        : next;
+            case SCHEDULE_RESCHEDULED:
+                return before == MovieChange.Type.SCHEDULE_SET
+                        ? new MovieChange(MovieChange.Type.SCHEDULE_SET, next.getMovieId(), null, next.getDate())
+                        : next;
+            default:
+                return next;
+        }
+    }
+
+    private void flush() {
+        List<MovieChange> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<MovieChange> changes = Collections.unmodifiableList(batch);
+        for (MovieChangeListener listener : listeners) {
+            try {
+                listener.onChanges(changes);
+            } catch (RuntimeException e) {
+                System.err.println("Error in change listener: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.c1;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.c1.CsvFile")
+@Label("CSV File")
+@Category({"Media Library", "CSV"})
+@Description("Загрузка или перезапись файла MovieCSVDAO")
+public class CsvFileEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Lines")
+    long lines;
+}
@@ -0,0 +1,25 @@
+package com.example.c1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.c1.DAOCall")
+@Label("DAO Call")
+@Category({"Media Library", "DAO"})
+@Description("Вызов метода MovieDAO")
+public class DAOCallEvent extends Event {
+    @Label("Backend")
+    String backend;
+
+    @Label("Method")
+    String method;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -1,24 +1,71 @@
 package com.example.c1;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 public class DAOFactory {
     private static final GenreDAO genreDAO = new GenreListImpl();
     private static final DirectorDAO directorDAO = new DirectorListImpl();
 
+    // Метрики вызовов публикуются через JMX; отключаются флагом -Dc1.metrics=false
+    private static volatile boolean instrumentationEnabled =
+            Boolean.parseBoolean(System.getProperty("c1.metrics", "true"));
+    // Одни метрики на источник: пересоздание DAO при переключении их не сбрасывает
+    private static final Map<DataSourceType, MovieDAOMetrics> metrics = new EnumMap<>(DataSourceType.class);
+    // Открытые DAO: по одному на источник, переиспользуются при переключении и закрываются в closeAll()
+    private static final Map<DataSourceType, MovieDAO> openDAOs = new EnumMap<>(DataSourceType.class);
+
     public enum DataSourceType {
         H2, CSV, SQLITE
     }
 
+    // Общий DAO источника: создаётся при первом обращении, соединение и проверки схемы не повторяются.
+    // Его используют несколько потоков, поэтому вызовы сериализуются SynchronizedMovieDAO
+    public static synchronized MovieDAO getMovieDAO(DataSourceType type) {
+        return openDAOs.computeIfAbsent(type, t -> new SynchronizedMovieDAO(createMovieDAO(t)));
+    }
+
+    // Закрывает все DAO из getMovieDAO; следующий getMovieDAO откроет источник заново
+    public static synchronized void closeAll() {
+        for (MovieDAO dao : openDAOs.values()) {
+            try {
+                dao.close();
+            } catch (RuntimeException e) {
+                System.err.println("Error closing data source: " + e.getMessage());
+            }
+        }
+        openDAOs.clear();
+    }
+
+    // Новый DAO в собственном владении вызывающего: закрывать его должен он сам
     public static MovieDAO createMovieDAO(DataSourceType type) {
+        MovieDAO dao;
         switch (type) {
             case H2:
-                return new MovieH2DAO(genreDAO, directorDAO);
+                dao = new MovieH2DAO();
+                break;
             case CSV:
-                return new MovieCSVDAO(genreDAO, directorDAO);
+                dao = new MovieCSVDAO(genreDAO, directorDAO);
+                break;
             case SQLITE:
-                return new MovieSQLiteDAO(genreDAO, directorDAO);
+                dao = new MovieSQLiteDAO();
+                break;
             default:
                 throw new IllegalArgumentException("Unknown data source type: " + type);
         }
+        return instrumentationEnabled ? new InstrumentedMovieDAO(dao, getMetrics(type)) : dao;
+    }
+
+    public static synchronized MovieDAOMetrics getMetrics(DataSourceType type) {
+        return metrics.computeIfAbsent(type, t -> {
+            MovieDAOMetrics created = new MovieDAOMetrics(t.name());
+            created.register();
+            return created;
+        });
+    }
+
+    public static void setInstrumentationEnabled(boolean enabled) {
+        instrumentationEnabled = enabled;
     }
 
     public static GenreDAO getGenreDAO() {
@@ -28,4 +75,4 @@ public class DAOFactory {
     public static DirectorDAO getDirectorDAO() {
         return directorDAO;
     }
-}
\ No newline at end of file
+}
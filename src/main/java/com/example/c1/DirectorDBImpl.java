@@ -0,0 +1,51 @@
+package com.example.c1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Справочник режиссёров из таблицы directors конкретной базы. Читается один раз,
+// все фильмы ссылаются на одни и те же экземпляры Director
+public class DirectorDBImpl implements DirectorDAO {
+    private final Connection connection;
+    private volatile List<Director> directors;
+    private volatile IdCache<Director> directorsById;
+
+    public DirectorDBImpl(Connection connection) {
+        this.connection = connection;
+        refresh();
+    }
+
+    // Перечитать таблицу, если режиссёры менялись в обход приложения
+    public synchronized void refresh() {
+        List<Director> loaded = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM directors ORDER BY id")) {
+            while (rs.next()) {
+                loaded.add(new Director(rs.getInt(1), rs.getString(2)));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading directors", e);
+        }
+        directorsById = new IdCache<>(loaded, Director::getId);
+        directors = loaded;
+    }
+
+    @Override
+    public List<Director> getAllDirectors() {
+        return new ArrayList<>(directors);
+    }
+
+    @Override
+    public Director getDirectorById(int id) {
+        return directorsById.get(id);
+    }
+
+    @Override
+    public double getViewPercentage(Director director) {
+        return 0; // Реализация в MovieDAO
+    }
+}
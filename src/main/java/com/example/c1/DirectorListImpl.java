@@ -5,6 +5,7 @@ import java.util.List;
 
 public class DirectorListImpl implements DirectorDAO {
     private final List<Director> directors;
+    private final IdCache<Director> directorsById;
 
     public DirectorListImpl() {
         directors = new ArrayList<>();
@@ -13,6 +14,7 @@ public class DirectorListImpl implements DirectorDAO {
         directors.add(new Director(3, "Steven Spielberg"));
         directors.add(new Director(4, "James Cameron"));
         directors.add(new Director(5, "Martin Scorsese"));
+        directorsById = new IdCache<>(directors, Director::getId);
     }
 
     @Override
@@ -22,10 +24,7 @@ public class DirectorListImpl implements DirectorDAO {
 
     @Override
     public Director getDirectorById(int id) {
-        return directors.stream()
-                .filter(d -> d.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return directorsById.get(id);
     }
 
     @Override
@@ -0,0 +1,245 @@
+package com.example.c1;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Поиск дубликатов: нормализация названий, блокировка по хэшу и MinHash/LSH по шинглам
+public class DuplicateDetector {
+    private static final int SHINGLE_SIZE = 3;
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int NUM_HASHES = BANDS * ROWS_PER_BAND;
+    // Крупные корзины LSH сравниваются скользящим окном, а не всеми парами
+    private static final int MAX_PAIRWISE_BUCKET = 64;
+    private static final int BUCKET_WINDOW = 32;
+
+    // Транслитерация строчных букв 'а'..'я'; 'й' и 'ё' после NFKD приходят как 'и' и 'е'
+    private static final String[] CYRILLIC_TO_LATIN = {
+            "a", "b", "v", "g", "d", "e", "zh", "z", "i", "y", "k", "l", "m", "n", "o", "p",
+            "r", "s", "t", "u", "f", "kh", "ts", "ch", "sh", "shch", "", "y", "", "e", "yu", "ya"
+    };
+
+    private final double similarityThreshold;
+    private final int maxYearDifference;
+    private final long[] hashA = new long[NUM_HASHES];
+    private final long[] hashB = new long[NUM_HASHES];
+
+    public DuplicateDetector() {
+        this(0.7, 1);
+    }
+
+    public DuplicateDetector(double similarityThreshold, int maxYearDifference) {
+        this.similarityThreshold = similarityThreshold;
+        this.maxYearDifference = maxYearDifference;
+        // Фиксированное зерно: одинаковые данные всегда дают одинаковые кластеры
+        Random random = new Random(42);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            hashA[i] = random.nextLong() | 1;
+            hashB[i] = random.nextLong();
+        }
+    }
+
+    public List<List<Movie>> findClusters(List<Movie> movies) {
+        int size = movies.size();
+        String[] keys = new String[size];
+        int[] years = new int[size];
+        int[][] signatures = new int[size][];
+
+        IntStream.range(0, size).parallel().forEach(i -> {
+            Movie movie = movies.get(i);
+            keys[i] = normalize(titleOf(movie));
+            years[i] = movie.getYear();
+            signatures[i] = signature(keys[i]);
+        });
+
+        UnionFind clusters = new UnionFind(size);
+
+        // Точные совпадения после нормализации: блок по хэшу ключа и году
+        Map<Long, Integer> exact = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            long blockKey = ((long) keys[i].hashCode() << 32) ^ years[i];
+            Integer first = exact.putIfAbsent(blockKey, i);
+            if (first != null && years[first] == years[i] && keys[first].equals(keys[i])) {
+                clusters.union(first, i);
+            }
+        }
+
+        // Нечёткие совпадения: кандидаты из корзин LSH, проверка по оценке Жаккара.
+        // Корзина - серия одинаковых хэшей полосы в отсортированном массиве (хэш | индекс строки)
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, size));
+        long indexMask = (1L << indexBits) - 1;
+        IntStream.range(0, BANDS).parallel().forEach(band -> {
+            long[] entries = new long[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (signatures[i] != null) {
+                    entries[count++] = (bandHash(signatures[i], band) << indexBits) | i;
+                }
+            }
+            Arrays.sort(entries, 0, count);
+
+            int[] bucket = new int[16];
+            int start = 0;
+            while (start < count) {
+                long hash = entries[start] >>> indexBits;
+                int end = start + 1;
+                while (end < count && entries[end] >>> indexBits == hash) {
+                    end++;
+                }
+                if (end - start > 1) {
+                    if (bucket.length < end - start) {
+                        bucket = new int[end - start];
+                    }
+                    for (int k = start; k < end; k++) {
+                        bucket[k - start] = (int) (entries[k] & indexMask);
+                    }
+                    compareBucket(bucket, end - start, years, signatures, clusters);
+                }
+                start = end;
+            }
+        });
+
+        Map<Integer, List<Movie>> groups = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            groups.computeIfAbsent(clusters.find(i), k -> new ArrayList<>()).add(movies.get(i));
+        }
+        return groups.values().stream()
+                .filter(group -> group.size() > 1)
+                .sorted((a, b) -> Integer.compare(b.size(), a.size()))
+                .collect(Collectors.toList());
+    }
+
+    private void compareBucket(int[] bucket, int length, int[] years, int[][] signatures, UnionFind clusters) {
+        int window = length > MAX_PAIRWISE_BUCKET ? BUCKET_WINDOW : length;
+        for (int x = 0; x < length; x++) {
+            int i = bucket[x];
+            for (int y = x + 1; y < Math.min(length, x + window); y++) {
+                int j = bucket[y];
+                if (Math.abs(years[i] - years[j]) <= maxYearDifference
+                        && !clusters.connected(i, j)
+                        && estimateSimilarity(signatures[i], signatures[j]) >= similarityThreshold) {
+                    clusters.union(i, j);
+                }
+            }
+        }
+    }
+
+    private static String titleOf(Movie movie) {
+        String original = movie.getOriginalTitle();
+        return original != null && !original.isBlank() ? original : movie.getTitle();
+    }
+
+    // Регистр, диакритика, пунктуация и кириллица приводятся к одному виду
+    public static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(title, Normalizer.Form.NFKD).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            String mapped = null;
+            if (c >= 'а' && c <= 'я') {
+                mapped = CYRILLIC_TO_LATIN[c - 'а'];
+            } else if (Character.isLetterOrDigit(c)) {
+                mapped = String.valueOf(c);
+            }
+            if (mapped == null) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(mapped);
+        }
+        return sb.toString();
+    }
+
+    private int[] signature(String key) {
+        if (key.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        // Ключ дополняется пробелами по краям, чтобы начало и конец слова давали свои шинглы
+        int paddedLength = key.length() + 2;
+        int shingles = Math.max(1, paddedLength - SHINGLE_SIZE + 1);
+        for (int s = 0; s < shingles; s++) {
+            long shingle = 0;
+            for (int c = s; c < Math.min(paddedLength, s + SHINGLE_SIZE); c++) {
+                shingle = (shingle << 16) | (c == 0 || c == paddedLength - 1 ? ' ' : key.charAt(c - 1));
+            }
+            // Универсальное хэширование multiply-shift вместо деления по модулю
+            for (int h = 0; h < NUM_HASHES; h++) {
+                int value = (int) ((hashA[h] * shingle + hashB[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long bandHash(int[] signature, int band) {
+        long hash = band;
+        for (int r = band * ROWS_PER_BAND; r < (band + 1) * ROWS_PER_BAND; r++) {
+            hash = hash * 0x100000001B3L ^ signature[r];
+        }
+        return hash;
+    }
+
+    private static double estimateSimilarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    private static class UnionFind {
+        private final int[] parent;
+
+        UnionFind(int size) {
+            parent = new int[size];
+            for (int i = 0; i < size; i++) {
+                parent[i] = i;
+            }
+        }
+
+        synchronized int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        synchronized boolean connected(int a, int b) {
+            return find(a) == find(b);
+        }
+
+        synchronized void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA != rootB) {
+                parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+            }
+        }
+    }
+}
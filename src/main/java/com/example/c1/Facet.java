@@ -0,0 +1,21 @@
+package com.example.c1;
+
+public enum Facet {
+    GENRE, DIRECTOR, DECADE, RATING_BAND;
+
+    // Значение фасета для фильма: id жанра/режиссёра, начало десятилетия, целая часть рейтинга
+    public int valueOf(Movie movie) {
+        switch (this) {
+            case GENRE:
+                return movie.getGenre() != null ? movie.getGenre().getId() : 0;
+            case DIRECTOR:
+                return movie.getDirector() != null ? movie.getDirector().getId() : 0;
+            case DECADE:
+                return movie.getYear() / 10 * 10;
+            case RATING_BAND:
+                return (int) Math.floor(movie.getImdbRating());
+            default:
+                throw new IllegalArgumentException("Unknown facet: " + this);
+        }
+    }
+}
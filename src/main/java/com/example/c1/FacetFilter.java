@@ -0,0 +1,27 @@
+package com.example.c1;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Значения внутри одного фасета объединяются через OR, разные фасеты - через AND
+public class FacetFilter {
+    private final Map<Facet, Set<Integer>> selected = new EnumMap<>(Facet.class);
+
+    public FacetFilter with(Facet facet, int... values) {
+        Set<Integer> facetValues = selected.computeIfAbsent(facet, f -> new LinkedHashSet<>());
+        for (int value : values) {
+            facetValues.add(value);
+        }
+        return this;
+    }
+
+    public Map<Facet, Set<Integer>> getSelected() {
+        return selected;
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty();
+    }
+}
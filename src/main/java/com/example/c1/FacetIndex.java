@@ -0,0 +1,127 @@
+package com.example.c1;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Битовые индексы по жанру, режиссёру, десятилетию и рейтингу; биты - id фильмов
+public class FacetIndex {
+    private final Map<Facet, TreeMap<Integer, CompressedBitmap>> bitmaps = new EnumMap<>(Facet.class);
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final IntHashMap<Movie> moviesById = new IntHashMap<>();
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new TreeMap<>());
+        }
+    }
+
+    public FacetIndex(List<Movie> movies) {
+        this();
+        movies.forEach(this::add);
+    }
+
+    public void add(Movie movie) {
+        remove(movie.getId());
+        moviesById.put(movie.getId(), movie);
+        all.add(movie.getId());
+        for (Facet facet : Facet.values()) {
+            bitmaps.get(facet).computeIfAbsent(facet.valueOf(movie), v -> new CompressedBitmap()).add(movie.getId());
+        }
+    }
+
+    public void remove(int movieId) {
+        Movie movie = moviesById.remove(movieId);
+        if (movie == null) {
+            return;
+        }
+        all.remove(movieId);
+        for (Facet facet : Facet.values()) {
+            Map<Integer, CompressedBitmap> values = bitmaps.get(facet);
+            int value = facet.valueOf(movie);
+            CompressedBitmap bitmap = values.get(value);
+            if (bitmap != null) {
+                bitmap.remove(movieId);
+                if (bitmap.isEmpty()) {
+                    values.remove(value);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (Map<Integer, CompressedBitmap> values : bitmaps.values()) {
+            values.clear();
+        }
+        moviesById.clear();
+        all.clear();
+    }
+
+    public Movie getMovie(int movieId) {
+        return moviesById.get(movieId);
+    }
+
+    // Набор id, удовлетворяющих фильтру: OR по значениям фасета, AND между фасетами
+    public CompressedBitmap match(FacetFilter filter) {
+        CompressedBitmap result = all;
+        for (Map.Entry<Facet, Set<Integer>> entry : filter.getSelected().entrySet()) {
+            result = result.and(union(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    public CompressedBitmap bitmap(Facet facet, int value) {
+        return bitmaps.get(facet).get(value);
+    }
+
+    // Объединение битовых карт значений фасета из диапазона [from, to]
+    public CompressedBitmap range(Facet facet, int from, int to) {
+        CompressedBitmap union = new CompressedBitmap();
+        if (from > to) {
+            return union;
+        }
+        for (CompressedBitmap bitmap : bitmaps.get(facet).subMap(from, true, to, true).values()) {
+            union = union.or(bitmap);
+        }
+        return union;
+    }
+
+    public CompressedBitmap union(Facet facet, Set<Integer> values) {
+        CompressedBitmap union = new CompressedBitmap();
+        Map<Integer, CompressedBitmap> facetValues = bitmaps.get(facet);
+        for (int value : values) {
+            CompressedBitmap bitmap = facetValues.get(value);
+            if (bitmap != null) {
+                union = union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    public CompressedBitmap all() {
+        return all;
+    }
+
+    public FacetResult search(FacetFilter filter) {
+        CompressedBitmap matched = match(filter);
+
+        List<Movie> movies = new ArrayList<>(matched.cardinality());
+        matched.forEach(id -> movies.add(moviesById.get(id)));
+
+        Map<Facet, Map<Integer, Integer>> counts = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            Map<Integer, Integer> facetCounts = new TreeMap<>();
+            for (Map.Entry<Integer, CompressedBitmap> entry : bitmaps.get(facet).entrySet()) {
+                int count = matched.andCardinality(entry.getValue());
+                if (count > 0) {
+                    facetCounts.put(entry.getKey(), count);
+                }
+            }
+            counts.put(facet, facetCounts);
+        }
+        return new FacetResult(movies, counts);
+    }
+}
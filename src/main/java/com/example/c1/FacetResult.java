@@ -0,0 +1,21 @@
+package com.example.c1;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetResult {
+    private final List<Movie> movies;
+    private final Map<Facet, Map<Integer, Integer>> counts;
+
+    public FacetResult(List<Movie> movies, Map<Facet, Map<Integer, Integer>> counts) {
+        this.movies = movies;
+        this.counts = counts;
+    }
+
+    public List<Movie> getMovies() { return movies; }
+    public Map<Facet, Map<Integer, Integer>> getCounts() { return counts; }
+
+    public Map<Integer, Integer> getCounts(Facet facet) {
+        return counts.get(facet);
+    }
+}
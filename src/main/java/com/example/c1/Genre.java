@@ -16,6 +16,19 @@ public class Genre implements Serializable {
     public int getId() { return id; }
     public String getName() { return name; }
 
+    // Сущность справочника определяется id: экземпляр из другого источника равен закэшированному
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Genre)) return false;
+        return id == ((Genre) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return name;
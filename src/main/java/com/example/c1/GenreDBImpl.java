@@ -0,0 +1,46 @@
+package com.example.c1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Справочник жанров из таблицы genres конкретной базы. Читается один раз,
+// все фильмы ссылаются на одни и те же экземпляры Genre
+public class GenreDBImpl implements GenreDAO {
+    private final Connection connection;
+    private volatile List<Genre> genres;
+    private volatile IdCache<Genre> genresById;
+
+    public GenreDBImpl(Connection connection) {
+        this.connection = connection;
+        refresh();
+    }
+
+    // Перечитать таблицу, если жанры менялись в обход приложения
+    public synchronized void refresh() {
+        List<Genre> loaded = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM genres ORDER BY id")) {
+            while (rs.next()) {
+                loaded.add(new Genre(rs.getInt(1), rs.getString(2)));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading genres", e);
+        }
+        genresById = new IdCache<>(loaded, Genre::getId);
+        genres = loaded;
+    }
+
+    @Override
+    public List<Genre> getAllGenres() {
+        return new ArrayList<>(genres);
+    }
+
+    @Override
+    public Genre getGenreById(int id) {
+        return genresById.get(id);
+    }
+}
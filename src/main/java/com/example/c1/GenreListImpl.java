@@ -5,6 +5,7 @@ import java.util.List;
 
 public class GenreListImpl implements GenreDAO {
     private final List<Genre> genres;
+    private final IdCache<Genre> genresById;
 
     public GenreListImpl() {
         genres = new ArrayList<>();
@@ -13,6 +14,7 @@ public class GenreListImpl implements GenreDAO {
         genres.add(new Genre(3, "Drama"));
         genres.add(new Genre(4, "Sci-Fi"));
         genres.add(new Genre(5, "Thriller"));
+        genresById = new IdCache<>(genres, Genre::getId);
     }
 
     @Override
@@ -22,9 +24,6 @@ public class GenreListImpl implements GenreDAO {
 
     @Override
     public Genre getGenreById(int id) {
-        return genres.stream()
-                .filter(g -> g.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return genresById.get(id);
     }
 }
\ No newline at end of file
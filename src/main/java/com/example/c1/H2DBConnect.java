@@ -3,18 +3,24 @@ package com.example.c1;
 import javax.sql.rowset.CachedRowSet;
 import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
+import java.util.List;
 
 public class H2DBConnect {
-    private static final String FILE_JDBC_URL = "jdbc:h2:~/testdb";
-    private static final String MEMORY_JDBC_URL = "jdbc:h2:mem:testdb";
+    private static final String DATABASE = "H2";
+    public static final String FILE_JDBC_URL = "jdbc:h2:~/testdb";
+    public static final String MEMORY_JDBC_URL = "jdbc:h2:mem:testdb";
     private static final String USER = "sa";
     private static final String PASSWORD = "";
     private Connection connection;
+    private final SqlTracing tracing = new SqlTracing(DATABASE, this::explain);
 
     public void connect(boolean inMemory) throws SQLException {
+        connect(inMemory ? MEMORY_JDBC_URL : FILE_JDBC_URL);
+    }
+
+    public void connect(String url) throws SQLException {
         try {
             Class.forName("org.h2.Driver");
-            String url = inMemory ? MEMORY_JDBC_URL : FILE_JDBC_URL;
             connection = DriverManager.getConnection(url, USER, PASSWORD);
             initializeDatabase();
         } catch (ClassNotFoundException e) {
@@ -67,9 +73,19 @@ public class H2DBConnect {
                 "views INT DEFAULT 0, " +
                 "director_id INT, " +
                 "genre_id INT, " +
+                "title_sort_key VARBINARY, " +
+                "original_title_sort_key VARBINARY, " +
                 "FOREIGN KEY (director_id) REFERENCES directors(id), " +
                 "FOREIGN KEY (genre_id) REFERENCES genres(id))");
 
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_title_year ON movies(original_title, release_year)");
+        // Индексы под фильтры и сортировки MovieQuery
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_genre_rating ON movies(genre_id, imdb_rating)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_director ON movies(director_id)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_year ON movies(release_year)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_rating ON movies(imdb_rating)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_views ON movies(views)");
+
         // Check if movies table is empty
         try (ResultSet rs = executeQuery("SELECT COUNT(*) FROM movies")) {
             if (rs.next() && rs.getInt(1) == 0) {
@@ -87,26 +103,54 @@ public class H2DBConnect {
     }
 
     public CachedRowSet executeQuery(String query) throws SQLException {
+        SqlTracing.Execution execution = tracing.begin(query);
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             CachedRowSet crs = RowSetProvider.newFactory().createCachedRowSet();
             crs.populate(rs);
+            execution.complete(crs.size());
             return crs;
         }
     }
 
     public int executeUpdate(String sql) throws SQLException {
+        SqlTracing.Execution execution = tracing.begin(sql);
         try (Statement stmt = connection.createStatement()) {
-            return stmt.executeUpdate(sql);
+            int rows = stmt.executeUpdate(sql);
+            execution.complete(rows);
+            return rows;
         }
     }
 
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        return connection.prepareStatement(sql);
+        return tracing.trace(connection.prepareStatement(sql), sql);
     }
 
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-        return connection.prepareStatement(sql, autoGeneratedKeys);
+        return tracing.trace(connection.prepareStatement(sql, autoGeneratedKeys), sql);
+    }
+
+    // Запросы дольше порога пишутся в SlowQueryLog вместе с параметрами и планом
+    public void setSlowQueryThresholdMillis(long millis) {
+        tracing.setSlowQueryThresholdMillis(millis);
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return tracing.getSlowQueryThresholdMillis();
+    }
+
+    // EXPLAIN H2 возвращает план одной строкой с выбранными индексами в комментариях
+    private String explain(String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN " + sql)) {
+            SqlTracing.bind(pstmt, params);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append(System.lineSeparator());
+                }
+            }
+            return plan.toString().trim();
+        }
     }
 
     public void disconnect() {
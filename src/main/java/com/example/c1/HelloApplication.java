@@ -7,10 +7,13 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class HelloApplication extends Application {
+    private HelloController controller;
+
     @Override
     public void start(Stage stage) throws Exception {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("hello-view.fxml"));
         Parent root = loader.load();
+        controller = loader.getController();
 
         Scene scene = new Scene(root, 800, 600);
         stage.setTitle("Управление медиатекой");
@@ -18,6 +21,14 @@ public class HelloApplication extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+        DAOFactory.closeAll();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
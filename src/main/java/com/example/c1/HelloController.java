@@ -1,9 +1,13 @@
 package com.example.c1;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
@@ -13,13 +17,21 @@ import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.Pair;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
 
 public class HelloController {
     // Константы для цветов подсветки
@@ -29,6 +41,10 @@ public class HelloController {
     private static final String COLOR_FIVE_PLUS_VIEWS = "-fx-background-color: #FFC0CB;";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
     private static final int REMINDER_DAYS_BEFORE = 3;
+    private static final long REMINDER_CHECK_PERIOD_MINUTES = 60;
+    private static final int TITLE_SEARCH_LIMIT = 200;
+    private static final Duration TITLE_SEARCH_DEBOUNCE = Duration.millis(250);
+    private static final int PAGE_SIZE = 200;
 
     // Элементы таблицы
     @FXML private TableView<Movie> movieTable;
@@ -46,6 +62,7 @@ public class HelloController {
     @FXML private ComboBox<Director> directorComboBox;
     @FXML private TextField minRatingField;
     @FXML private TextField minYearField;
+    @FXML private TextField titleSearchField;
 
     // Кнопки
     @FXML private Button searchButton;
@@ -60,19 +77,36 @@ public class HelloController {
 
     // Данные
     private MovieDAO movieDAO;
+    private DAOFactory.DataSourceType dataSourceType;
+    // Снимок прошлого запуска: показывается, пока источник подключается, затем сбрасывается
+    private TableSnapshot snapshot;
+    // Номер последнего подключения: результаты устаревших фоновых подключений отбрасываются
+    private int connectGeneration;
+    private ReminderService reminderService;
+    private final PauseTransition titleSearchDebounce = new PauseTransition(TITLE_SEARCH_DEBOUNCE);
     private final ObservableList<Movie> movies = FXCollections.observableArrayList();
-    private final ObservableList<Genre> genres = FXCollections.observableArrayList(DAOFactory.getGenreDAO().getAllGenres());
-    private final ObservableList<Director> directors = FXCollections.observableArrayList(DAOFactory.getDirectorDAO().getAllDirectors());
+    // true - в таблице вся библиотека, подгружаемая страницами; false - готовый результат поиска
+    private boolean pagedView = true;
+    private boolean lastPageLoaded;
+    // Справочники подключённого источника: у каждой базы свои id жанров и режиссёров, заполняются в onConnected
+    private final ObservableList<Genre> genres = FXCollections.observableArrayList();
+    private final ObservableList<Director> directors = FXCollections.observableArrayList();
 
     @FXML
     public void initialize() {
+        // Таблица из снимка прошлого запуска видна сразу; подключение к источнику и сверка идут в фоне
+        snapshot = TableSnapshot.load(TableSnapshot.defaultPath());
+        DAOFactory.DataSourceType startSource = snapshot != null ? snapshot.getSource() : DAOFactory.DataSourceType.H2;
+
         setupTableColumns();
-        setupComboBoxes();
+        setupServerSideSorting();
+        setupComboBoxes(startSource);
         setupRowFactory();
 
-        // Инициализация с H2 базой данных по умолчанию
-        movieDAO = DAOFactory.createMovieDAO(DAOFactory.DataSourceType.H2);
-        refreshData();
+        if (snapshot != null) {
+            movies.setAll(snapshot.getMovies());
+        }
+        connectAsync(startSource);
 
         // Назначение обработчиков событий
         searchButton.setOnAction(e -> handleSmartSearch());
@@ -85,8 +119,10 @@ public class HelloController {
         markWatchedButton.setOnAction(e -> handleMarkWatched());
         showHistoryButton.setOnAction(e -> handleShowHistory());
 
-        // Проверка напоминаний при запуске
-        checkReminders();
+        // Поиск по мере ввода: запрос уходит, когда пользователь перестал печатать
+        titleSearchDebounce.setOnFinished(e -> handleTitleSearch());
+        titleSearchField.textProperty().addListener((obs, oldText, newText) -> titleSearchDebounce.playFromStart());
+
     }
 
     private void setupTableColumns() {
@@ -97,7 +133,9 @@ public class HelloController {
         directorColumn.setCellValueFactory(new PropertyValueFactory<>("director"));
         genreColumn.setCellValueFactory(new PropertyValueFactory<>("genre"));
         scheduleColumn.setCellValueFactory(cellData -> {
-            MovieSchedule schedule = movieDAO.getMovieSchedule(cellData.getValue().getId());
+            int movieId = cellData.getValue().getId();
+            MovieSchedule schedule = movieDAO != null ? movieDAO.getMovieSchedule(movieId)
+                    : snapshot != null ? snapshot.getSchedule(movieId) : null;
             return schedule != null ?
                     new SimpleStringProperty(formatSchedule(schedule)) :
                     new SimpleStringProperty("Не назначено");
@@ -105,6 +143,76 @@ public class HelloController {
         movieTable.setItems(movies);
     }
 
+    // Сортировка по заголовку колонки выполняется в DAO (ORDER BY по индексу или отсортированный индекс CSV),
+    // таблица получает только нужное окно и догружает следующие страницы при прокрутке вниз
+    private void setupServerSideSorting() {
+        idColumn.setUserData(SortField.ID);
+        titleColumn.setUserData(SortField.TITLE);
+        yearColumn.setUserData(SortField.YEAR);
+        ratingColumn.setUserData(SortField.RATING);
+        directorColumn.setSortable(false);
+        genreColumn.setSortable(false);
+        scheduleColumn.setSortable(false);
+
+        movieTable.setSortPolicy(table -> {
+            if (movieDAO == null) {
+                return true;
+            }
+            if (pagedView) {
+                refreshData();
+            } else {
+                FXCollections.sort(movies, currentSortField().comparator(currentSortDescending()));
+            }
+            return true;
+        });
+
+        movieTable.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : movieTable.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= scrollBar.getMax()) {
+                            loadNextPage();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private SortField currentSortField() {
+        return movieTable.getSortOrder().isEmpty()
+                ? SortField.ID
+                : (SortField) movieTable.getSortOrder().get(0).getUserData();
+    }
+
+    private boolean currentSortDescending() {
+        return !movieTable.getSortOrder().isEmpty()
+                && movieTable.getSortOrder().get(0).getSortType() == TableColumn.SortType.DESCENDING;
+    }
+
+    private MovieQuery pageQuery(int offset) {
+        return MovieQuery.builder()
+                .sortBy(currentSortField(), currentSortDescending())
+                .offset(offset)
+                .limit(PAGE_SIZE)
+                .build();
+    }
+
+    private void loadNextPage() {
+        if (movieDAO == null || !pagedView || lastPageLoaded) {
+            return;
+        }
+        try {
+            List<Movie> page = movieDAO.find(pageQuery(movies.size()));
+            lastPageLoaded = page.size() < PAGE_SIZE;
+            movies.addAll(page);
+        } catch (Exception e) {
+            showAlert("Error", "Failed to load data", "Error loading data from database: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private String formatSchedule(MovieSchedule schedule) {
         String str = schedule.getPlannedDate().format(DATE_FORMATTER);
         if (schedule.getCompletionDate() != null) {
@@ -113,13 +221,15 @@ public class HelloController {
         return str;
     }
 
-    private void setupComboBoxes() {
+    private void setupComboBoxes(DAOFactory.DataSourceType initialSource) {
         dataSourceComboBox.getItems().setAll(
                 "H2 Database",
                 "CSV File",
                 "SQLite Database"
         );
-        dataSourceComboBox.getSelectionModel().selectFirst();
+        // Порядок строк совпадает с DAOFactory.DataSourceType; выбор до назначения обработчика,
+        // чтобы не запускать лишнее подключение
+        dataSourceComboBox.getSelectionModel().select(initialSource.ordinal());
         dataSourceComboBox.setOnAction(e -> switchDataSource());
 
         genreComboBox.setItems(genres);
@@ -161,26 +271,172 @@ public class HelloController {
 
     private void switchDataSource() {
         String selected = dataSourceComboBox.getSelectionModel().getSelectedItem();
-        try {
-            if ("H2 Database".equals(selected)) {
-                movieDAO = DAOFactory.createMovieDAO(DAOFactory.DataSourceType.H2);
-            } else if ("CSV File".equals(selected)) {
-                movieDAO = DAOFactory.createMovieDAO(DAOFactory.DataSourceType.CSV);
-            } else if ("SQLite Database".equals(selected)) {
-                movieDAO = DAOFactory.createMovieDAO(DAOFactory.DataSourceType.SQLITE);
+        if ("H2 Database".equals(selected)) {
+            connectAsync(DAOFactory.DataSourceType.H2);
+        } else if ("CSV File".equals(selected)) {
+            connectAsync(DAOFactory.DataSourceType.CSV);
+        } else if ("SQLite Database".equals(selected)) {
+            connectAsync(DAOFactory.DataSourceType.SQLITE);
+        }
+    }
+
+    // Открытие источника (DDL, проверки схемы) и чтение первых строк - в фоновом потоке;
+    // окно остаётся отзывчивым, а таблица обновляется только в отличающихся строках
+    private void connectAsync(DAOFactory.DataSourceType type) {
+        int generation = ++connectGeneration;
+        setDataControlsDisabled(true);
+        // Столько строк, сколько уже показано (снимок может быть длиннее страницы), но не меньше страницы
+        int rowCount = Math.max(PAGE_SIZE, movies.size());
+        MovieQuery query = MovieQuery.builder()
+                .sortBy(currentSortField(), currentSortDescending())
+                .limit(rowCount)
+                .build();
+
+        Thread connector = new Thread(() -> {
+            try {
+                MovieDAO dao = DAOFactory.getMovieDAO(type);
+                List<Movie> rows = dao.find(query);
+                List<Genre> genreList = dao.getGenreDAO().getAllGenres();
+                List<Director> directorList = dao.getDirectorDAO().getAllDirectors();
+                Platform.runLater(() -> onConnected(generation, type, dao, rows, rowCount, genreList, directorList));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    if (generation == connectGeneration) {
+                        onConnectFailed();
+                        showAlert("Error", "Failed to switch data source", e.getMessage());
+                    }
+                });
             }
-            refreshData();
-        } catch (Exception e) {
-            showAlert("Error", "Failed to switch data source", e.getMessage());
-            e.printStackTrace();
+        }, "data-source-connect");
+        connector.setDaemon(true);
+        connector.start();
+    }
+
+    private void onConnected(int generation, DAOFactory.DataSourceType type, MovieDAO dao,
+                             List<Movie> rows, int rowCount, List<Genre> genreList, List<Director> directorList) {
+        if (generation != connectGeneration) {
+            return;
+        }
+        boolean switched = dataSourceType != null && dataSourceType != type;
+        movieDAO = dao;
+        dataSourceType = type;
+        snapshot = null;
+        replaceItems(genreComboBox, genres, genreList, HelloController::sameGenre);
+        replaceItems(directorComboBox, directors, directorList, HelloController::sameDirector);
+        pagedView = true;
+        lastPageLoaded = rows.size() < rowCount;
+        applyDifferences(rows);
+        // Колонка сроков теперь читается из DAO, а не из снимка
+        movieTable.refresh();
+        if (switched) {
+            movieTable.scrollTo(0);
+        }
+        setDataControlsDisabled(false);
+        // Проверка напоминаний в фоне, окно не ждёт её завершения
+        startReminderService();
+
+        if (rows.isEmpty()) {
+            showAlert("Information", "No Data", "The movie table is empty. Add movies using the Add button.");
+        }
+    }
+
+    // Выбор сохраняется, если в новом справочнике есть та же запись: тот же id и то же имя
+    private static <T> void replaceItems(ComboBox<T> comboBox, ObservableList<T> items, List<T> fresh,
+                                         BiPredicate<T, T> sameEntry) {
+        T selected = comboBox.getValue();
+        items.setAll(fresh);
+        for (int i = 0; selected != null && i < items.size(); i++) {
+            if (sameEntry.test(items.get(i), selected)) {
+                comboBox.getSelectionModel().select(i);
+                return;
+            }
+        }
+        comboBox.getSelectionModel().selectFirst();
+    }
+
+    // equals у Genre и Director сравнивает только id, а у каждой базы свой справочник id -> имя;
+    // при смене источника запись с тем же id, но другим именем, - уже другая
+    private static boolean sameGenre(Genre a, Genre b) {
+        return a == b || a != null && b != null && a.getId() == b.getId() && Objects.equals(a.getName(), b.getName());
+    }
+
+    private static boolean sameDirector(Director a, Director b) {
+        return a == b || a != null && b != null && a.getId() == b.getId() && Objects.equals(a.getName(), b.getName());
+    }
+
+    // Работа продолжается с прежним источником: управление снова доступно, в списке - его имя.
+    // Если источника ещё нет (не удалось первое подключение), доступен только выбор другого
+    private void onConnectFailed() {
+        if (movieDAO == null) {
+            dataSourceComboBox.setDisable(false);
+            return;
+        }
+        setDataControlsDisabled(false);
+        // Обработчик снимается на время выбора, чтобы не запустить новое подключение
+        dataSourceComboBox.setOnAction(null);
+        dataSourceComboBox.getSelectionModel().select(dataSourceType.ordinal());
+        dataSourceComboBox.setOnAction(e -> switchDataSource());
+    }
+
+    // Правит список на месте: удаляет пропавшие строки, вставляет и переставляет новые,
+    // заменяет изменившиеся; совпадающие строки не трогаются и сохраняют выделение
+    private void applyDifferences(List<Movie> fresh) {
+        Set<Integer> freshIds = new HashSet<>();
+        for (Movie movie : fresh) {
+            freshIds.add(movie.getId());
+        }
+        movies.removeIf(movie -> !freshIds.contains(movie.getId()));
+
+        for (int i = 0; i < fresh.size(); i++) {
+            Movie movie = fresh.get(i);
+            if (i < movies.size() && movies.get(i).getId() == movie.getId()) {
+                if (!sameContent(movies.get(i), movie)) {
+                    movies.set(i, movie);
+                }
+                continue;
+            }
+            for (int j = i + 1; j < movies.size(); j++) {
+                if (movies.get(j).getId() == movie.getId()) {
+                    movies.remove(j);
+                    break;
+                }
+            }
+            movies.add(i, movie);
+        }
+        if (movies.size() > fresh.size()) {
+            movies.remove(fresh.size(), movies.size());
+        }
+    }
+
+    private static boolean sameContent(Movie a, Movie b) {
+        return a.getId() == b.getId()
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getOriginalTitle(), b.getOriginalTitle())
+                && a.getYear() == b.getYear()
+                && Double.compare(a.getImdbRating(), b.getImdbRating()) == 0
+                && a.getViews() == b.getViews()
+                && sameDirector(a.getDirector(), b.getDirector())
+                && sameGenre(a.getGenre(), b.getGenre());
+    }
+
+    // Пока источник подключается, доступны только просмотр снимка и прокрутка
+    private void setDataControlsDisabled(boolean disabled) {
+        for (Control control : List.of(dataSourceComboBox, titleSearchField, searchButton, statsButton,
+                addButton, editButton, deleteButton, setScheduleButton, updateScheduleButton,
+                markWatchedButton, showHistoryButton)) {
+            control.setDisable(disabled);
         }
     }
 
     private void refreshData() {
         try {
-            List<Movie> movieList = movieDAO.getAllMovies();
+            pagedView = true;
+            List<Movie> movieList = movieDAO.find(pageQuery(0));
+            lastPageLoaded = movieList.size() < PAGE_SIZE;
             movies.setAll(movieList);
             movieTable.refresh();
+            movieTable.scrollTo(0);
 
             if (movieList.isEmpty()) {
                 showAlert("Information", "No Data", "The movie table is empty. Add movies using the Add button.");
@@ -191,6 +447,56 @@ public class HelloController {
         }
     }
 
+    // Точечные правки таблицы после изменений: меняется одна строка, страницы не перечитываются.
+    // Локальный список и выдача DAO сдвигаются одинаково, поэтому смещение следующей страницы остаётся верным
+    private int indexOfMovie(int movieId) {
+        for (int i = 0; i < movies.size(); i++) {
+            if (movies.get(i).getId() == movieId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Новый или изменённый фильм встаёт на место по текущей сортировке. Если место за концом
+    // загруженного окна, строка не показывается: её принесёт следующая страница.
+    // В результатах поиска изменённая строка заменяется на месте, новая не добавляется
+    private void placeMovie(Movie movie) {
+        int current = indexOfMovie(movie.getId());
+        if (!pagedView) {
+            if (current >= 0) {
+                movies.set(current, movie);
+            }
+            return;
+        }
+
+        Comparator<Movie> order = currentSortField().comparator(currentSortDescending());
+        if (current >= 0
+                && (current == 0 || order.compare(movies.get(current - 1), movie) < 0)
+                && (current == movies.size() - 1 || order.compare(movie, movies.get(current + 1)) < 0)) {
+            movies.set(current, movie);
+            return;
+        }
+        if (current >= 0) {
+            movies.remove(current);
+        }
+        int position = Collections.binarySearch(movies, movie, order);
+        position = position < 0 ? -position - 1 : position;
+        if (position < movies.size() || lastPageLoaded) {
+            movies.add(position, movie);
+            movieTable.getSelectionModel().select(position);
+            movieTable.scrollTo(position);
+        }
+    }
+
+    // Замена строки тем же объектом перерисовывает только её, в том числе колонку сроков
+    private void refreshRow(int movieId) {
+        int index = indexOfMovie(movieId);
+        if (index >= 0) {
+            movies.set(index, movies.get(index));
+        }
+    }
+
     private void showAlert(String title, String header, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -216,7 +522,7 @@ public class HelloController {
             try {
                 LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
                 movieDAO.setMovieSchedule(selectedMovie.getId(), date);
-                refreshData();
+                refreshRow(selectedMovie.getId());
                 showAlert("Успех", "Срок установлен",
                         "Для фильма " + selectedMovie.getTitle() + " установлен срок: " + dateStr);
             } catch (DateTimeParseException e) {
@@ -281,7 +587,7 @@ public class HelloController {
                 }
 
                 movieDAO.updateMovieSchedule(selectedMovie.getId(), newDate, reason);
-                refreshData();
+                refreshRow(selectedMovie.getId());
                 showAlert("Успех", "Срок перенесен",
                         "Срок просмотра для " + selectedMovie.getTitle() + " перенесен на " +
                                 pair.getKey() + " по причине: " + reason);
@@ -310,7 +616,7 @@ public class HelloController {
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
                 movieDAO.markMovieAsWatched(selectedMovie.getId());
-                refreshData();
+                refreshRow(selectedMovie.getId());
                 showAlert("Успех", "Отмечено как просмотренное",
                         "Фильм " + selectedMovie.getTitle() + " отмечен как просмотренный");
             } catch (Exception e) {
@@ -362,24 +668,49 @@ public class HelloController {
         stage.show();
     }
 
-    private void checkReminders() {
-        List<Movie> upcomingMovies = movieDAO.getMoviesWithUpcomingDeadlines(REMINDER_DAYS_BEFORE);
-        if (!upcomingMovies.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("Напоминание: у вас запланированы к просмотру:\n\n");
-
-            for (Movie movie : upcomingMovies) {
-                MovieSchedule schedule = movieDAO.getMovieSchedule(movie.getId());
-                sb.append("- ").append(movie.getTitle())
-                        .append(" (до ").append(schedule.getPlannedDate().format(DATE_FORMATTER)).append(")\n");
+    // Вызывается при закрытии окна: сохраняет снимок таблицы для следующего запуска и останавливает
+    // фоновую проверку напоминаний, чтобы она не обращалась к закрытым DAO
+    public void shutdown() {
+        ++connectGeneration;
+        if (movieDAO != null && pagedView) {
+            try {
+                TableSnapshot.capture(dataSourceType, movies, movieDAO).save(TableSnapshot.defaultPath());
+            } catch (RuntimeException e) {
+                System.err.println("Error saving table snapshot: " + e.getMessage());
             }
+        }
+        titleSearchDebounce.stop();
+        if (reminderService != null) {
+            reminderService.shutdown();
+            reminderService = null;
+        }
+    }
 
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Напоминание");
-            alert.setHeaderText("Предстоящие просмотры");
-            alert.setContentText(sb.toString());
-            alert.showAndWait();
+    private void startReminderService() {
+        if (reminderService != null) {
+            reminderService.shutdown();
         }
+        reminderService = new ReminderService(movieDAO, REMINDER_DAYS_BEFORE,
+                (reminders, onShown) -> Platform.runLater(() -> showReminders(reminders, onShown)));
+        reminderService.start(REMINDER_CHECK_PERIOD_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private void showReminders(List<Reminder> reminders, Runnable onShown) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Напоминание: у вас запланированы к просмотру:\n\n");
+
+        for (Reminder reminder : reminders) {
+            sb.append("- ").append(reminder.getMovie().getTitle())
+                    .append(" (до ").append(reminder.getPlannedDate().format(DATE_FORMATTER)).append(")\n");
+        }
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Напоминание");
+        alert.setHeaderText("Предстоящие просмотры");
+        alert.setContentText(sb.toString());
+        // Напоминания отмечаются отправленными только после появления окна
+        alert.setOnShown(e -> onShown.run());
+        alert.show();
     }
 
     private void handleSmartSearch() {
@@ -389,6 +720,7 @@ public class HelloController {
             int minYear = minYearField.getText().isEmpty() ? 0 : Integer.parseInt(minYearField.getText());
 
             List<Movie> searchResults = movieDAO.smartSearch(selectedGenre, minRating, minYear);
+            pagedView = false;
             movies.setAll(searchResults);
             if (searchResults.isEmpty()) {
                 showAlert("Information", "No Results", "No movies found matching the criteria");
@@ -401,6 +733,21 @@ public class HelloController {
         }
     }
 
+    private void handleTitleSearch() {
+        String query = titleSearchField.getText();
+        if (query == null || query.isBlank()) {
+            refreshData();
+            return;
+        }
+        try {
+            pagedView = false;
+            movies.setAll(movieDAO.searchByTitle(query, TITLE_SEARCH_LIMIT));
+        } catch (Exception e) {
+            showAlert("Error", "Search Failed", e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private void handleViewStatistics() {
         try {
             Director selectedDirector = directorComboBox.getSelectionModel().getSelectedItem();
@@ -422,7 +769,7 @@ public class HelloController {
         result.ifPresent(movie -> {
             try {
                 movieDAO.addMovie(movie);
-                refreshData();
+                placeMovie(movie);
             } catch (Exception e) {
                 showAlert("Error", "Failed to add movie", e.getMessage());
                 e.printStackTrace();
@@ -442,7 +789,7 @@ public class HelloController {
         result.ifPresent(movie -> {
             try {
                 movieDAO.updateMovie(movie);
-                refreshData();
+                placeMovie(movie);
             } catch (Exception e) {
                 showAlert("Error", "Failed to update movie", e.getMessage());
                 e.printStackTrace();
@@ -466,7 +813,10 @@ public class HelloController {
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
                 movieDAO.deleteMovie(selectedMovie.getId());
-                refreshData();
+                int index = indexOfMovie(selectedMovie.getId());
+                if (index >= 0) {
+                    movies.remove(index);
+                }
             } catch (Exception e) {
                 showAlert("Error", "Failed to delete movie", e.getMessage());
                 e.printStackTrace();
@@ -528,6 +878,11 @@ public class HelloController {
                     int views = Integer.parseInt(viewsField.getText());
                     Director director = directorCombo.getValue();
                     Genre genre = genreCombo.getValue();
+                    // У фильма может быть режиссёр или жанр, которого нет в справочнике этого источника
+                    if (director == null || genre == null) {
+                        showAlert("Input Error", "Invalid Data", "Please select a director and a genre");
+                        return null;
+                    }
 
                     return new Movie(id, titleText, originalTitle, year, rating, views, director, genre);
                 } catch (NumberFormatException e) {
@@ -0,0 +1,44 @@
+package com.example.c1;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Поиск справочных сущностей по id за O(1): плотные id - индекс в массиве, разреженные - IntHashMap
+public class IdCache<T> {
+    // Массив не больше чем в столько раз длиннее числа записей
+    private static final int MAX_SPARSENESS = 8;
+
+    private final Object[] dense;
+    private final IntHashMap<T> sparse;
+
+    public IdCache(List<T> items, ToIntFunction<T> idOf) {
+        int maxId = -1;
+        boolean negative = false;
+        for (T item : items) {
+            int id = idOf.applyAsInt(item);
+            maxId = Math.max(maxId, id);
+            negative |= id < 0;
+        }
+        if (!negative && maxId < (long) items.size() * MAX_SPARSENESS + 64) {
+            dense = new Object[maxId + 1];
+            sparse = null;
+            for (T item : items) {
+                dense[idOf.applyAsInt(item)] = item;
+            }
+        } else {
+            dense = null;
+            sparse = new IntHashMap<>(items.size());
+            for (T item : items) {
+                sparse.put(idOf.applyAsInt(item), item);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        if (dense != null) {
+            return id >= 0 && id < dense.length ? (T) dense[id] : null;
+        }
+        return sparse.get(id);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Декоратор MovieDAO: время, число вызовов, ошибки и строки по каждому методу, плюс событие JFR DAOCall.
+// Делегирует все методы, включая default, чтобы работали оптимизированные реализации источника
+public class InstrumentedMovieDAO implements MovieDAO {
+    private final MovieDAO delegate;
+    private final MovieDAOMetrics metrics;
+
+    public InstrumentedMovieDAO(MovieDAO delegate, MovieDAOMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public MovieDAO getDelegate() {
+        return delegate;
+    }
+
+    public MovieDAOMetrics getMetrics() {
+        return metrics;
+    }
+
+    private <T> T timed(String method, Supplier<T> action, ToIntFunction<T> rows) {
+        MovieDAOMetrics.MethodStats stats = metrics.method(method);
+        DAOCallEvent event = new DAOCallEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            int rowCount = result == null ? 0 : rows.applyAsInt(result);
+            stats.record(System.nanoTime() - start, rowCount);
+            commit(event, method, rowCount, false);
+            return result;
+        } catch (RuntimeException e) {
+            stats.recordError(System.nanoTime() - start);
+            commit(event, method, 0, true);
+            throw e;
+        }
+    }
+
+    private void timed(String method, Runnable action, int rows) {
+        timed(method, () -> {
+            action.run();
+            return rows;
+        }, Integer::intValue);
+    }
+
+    // Поля заполняются только для событий, которые реально попадут в запись JFR
+    private void commit(DAOCallEvent event, String method, int rows, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.backend = metrics.getBackend();
+            event.method = method;
+            event.rows = rows;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void addMovie(Movie movie) {
+        timed("addMovie", () -> delegate.addMovie(movie), 1);
+    }
+
+    @Override
+    public void addMovies(List<Movie> movies) {
+        timed("addMovies", () -> delegate.addMovies(movies), movies.size());
+    }
+
+    @Override
+    public void bulkLoad(Runnable load) {
+        timed("bulkLoad", () -> delegate.bulkLoad(load), 0);
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
+        return timed("updateMovie", () -> delegate.updateMovie(movie), updated -> updated ? 1 : 0);
+    }
+
+    @Override
+    public void deleteMovie(int id) {
+        timed("deleteMovie", () -> delegate.deleteMovie(id), 1);
+    }
+
+    @Override
+    public List<Movie> getAllMovies() {
+        return timed("getAllMovies", delegate::getAllMovies, List::size);
+    }
+
+    @Override
+    public List<Movie> smartSearch(Genre genre, double minRating, int minYear) {
+        return timed("smartSearch", () -> delegate.smartSearch(genre, minRating, minYear), List::size);
+    }
+
+    @Override
+    public List<Movie> searchByTitle(String query, int limit) {
+        return timed("searchByTitle", () -> delegate.searchByTitle(query, limit), List::size);
+    }
+
+    @Override
+    public List<Movie> find(MovieQuery query) {
+        return timed("find", () -> delegate.find(query), List::size);
+    }
+
+    @Override
+    public Map<Integer, List<Movie>> topK(Facet groupBy, SortField metric, int k) {
+        return timed("topK", () -> delegate.topK(groupBy, metric, k),
+                groups -> groups.values().stream().mapToInt(List::size).sum());
+    }
+
+    @Override
+    public FacetResult facetedSearch(FacetFilter filter) {
+        return timed("facetedSearch", () -> delegate.facetedSearch(filter), result -> result.getMovies().size());
+    }
+
+    @Override
+    public GenreDAO getGenreDAO() {
+        return delegate.getGenreDAO();
+    }
+
+    @Override
+    public DirectorDAO getDirectorDAO() {
+        return delegate.getDirectorDAO();
+    }
+
+    @Override
+    public double getDirectorViewPercentage(Director director) {
+        return timed("getDirectorViewPercentage", () -> delegate.getDirectorViewPercentage(director), result -> 1);
+    }
+
+    @Override
+    public List<Movie> findDuplicatesByTmdb() {
+        return timed("findDuplicatesByTmdb", delegate::findDuplicatesByTmdb, List::size);
+    }
+
+    @Override
+    public List<List<Movie>> findDuplicateClusters() {
+        return timed("findDuplicateClusters", delegate::findDuplicateClusters,
+                clusters -> clusters.stream().mapToInt(List::size).sum());
+    }
+
+    @Override
+    public void importFromCSV(String filePath) {
+        timed("importFromCSV", () -> delegate.importFromCSV(filePath), 0);
+    }
+
+    @Override
+    public void exportToCSV(String filePath) {
+        timed("exportToCSV", () -> delegate.exportToCSV(filePath), 0);
+    }
+
+    @Override
+    public String getCurrentFilePath() {
+        return delegate.getCurrentFilePath();
+    }
+
+    @Override
+    public void setMovieSchedule(int movieId, LocalDate plannedDate) {
+        timed("setMovieSchedule", () -> delegate.setMovieSchedule(movieId, plannedDate), 1);
+    }
+
+    @Override
+    public void updateMovieSchedule(int movieId, LocalDate newDate, String reason) {
+        timed("updateMovieSchedule", () -> delegate.updateMovieSchedule(movieId, newDate, reason), 1);
+    }
+
+    @Override
+    public MovieSchedule getMovieSchedule(int movieId) {
+        return timed("getMovieSchedule", () -> delegate.getMovieSchedule(movieId), schedule -> 1);
+    }
+
+    @Override
+    public List<Movie> getMoviesWithUpcomingDeadlines(int daysBefore) {
+        return timed("getMoviesWithUpcomingDeadlines", () -> delegate.getMoviesWithUpcomingDeadlines(daysBefore), List::size);
+    }
+
+    @Override
+    public List<MovieSchedule> getSchedulesBetween(LocalDate from, LocalDate to) {
+        return timed("getSchedulesBetween", () -> delegate.getSchedulesBetween(from, to), List::size);
+    }
+
+    @Override
+    public void markMovieAsWatched(int movieId) {
+        timed("markMovieAsWatched", () -> delegate.markMovieAsWatched(movieId), 1);
+    }
+
+    @Override
+    public void markRemindersSent(int[] movieIds) {
+        timed("markRemindersSent", () -> delegate.markRemindersSent(movieIds), movieIds.length);
+    }
+
+    @Override
+    public List<ScheduleChange> getScheduleHistory(int movieId) {
+        return timed("getScheduleHistory", () -> delegate.getScheduleHistory(movieId), List::size);
+    }
+
+    @Override
+    public void addSchedules(List<MovieSchedule> schedules) {
+        timed("addSchedules", () -> delegate.addSchedules(schedules), schedules.size());
+    }
+
+    // Подписка не измеряется: уведомления идут от самого источника
+    @Override
+    public void addChangeListener(MovieChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(MovieChangeListener listener) {
+        delegate.removeChangeListener(listener);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
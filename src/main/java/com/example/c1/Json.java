@@ -0,0 +1,253 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Минимальный JSON для HTTP API и пакетного режима: запись фильмов, сроков и метрик,
+// разбор плоских объектов запросов (строки, числа, true/false, null)
+public class Json {
+    private Json() {
+    }
+
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "null";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.4f", value).replaceAll("0+$", "");
+    }
+
+    public static String date(LocalDate date) {
+        return date == null ? "null" : quote(date.toString());
+    }
+
+    public static String movie(Movie movie) {
+        return "{\"id\":" + movie.getId()
+                + ",\"title\":" + quote(movie.getTitle())
+                + ",\"originalTitle\":" + quote(movie.getOriginalTitle())
+                + ",\"year\":" + movie.getYear()
+                + ",\"imdbRating\":" + number(movie.getImdbRating())
+                + ",\"views\":" + movie.getViews()
+                + ",\"director\":" + named(movie.getDirector() == null ? 0 : movie.getDirector().getId(),
+                        movie.getDirector() == null ? null : movie.getDirector().getName())
+                + ",\"genre\":" + named(movie.getGenre() == null ? 0 : movie.getGenre().getId(),
+                        movie.getGenre() == null ? null : movie.getGenre().getName())
+                + "}";
+    }
+
+    public static String named(int id, String name) {
+        return "{\"id\":" + id + ",\"name\":" + quote(name) + "}";
+    }
+
+    public static String schedule(MovieSchedule schedule) {
+        return "{\"movieId\":" + schedule.getMovieId()
+                + ",\"plannedDate\":" + date(schedule.getPlannedDate())
+                + ",\"completionDate\":" + date(schedule.getCompletionDate())
+                + ",\"reminderSent\":" + schedule.isReminderSent()
+                + "}";
+    }
+
+    public static String change(ScheduleChange change) {
+        return "{\"oldDate\":" + date(change.getOldDate())
+                + ",\"newDate\":" + date(change.getNewDate())
+                + ",\"reason\":" + quote(change.getReason())
+                + ",\"changeDate\":" + date(change.getChangeDate())
+                + "}";
+    }
+
+    public static String metrics(MethodMetrics m) {
+        return "{\"calls\":" + m.getCalls()
+                + ",\"errors\":" + m.getErrors()
+                + ",\"rows\":" + m.getRows()
+                + ",\"callsPerSecond\":" + number(m.getCallsPerSecond())
+                + ",\"meanMicros\":" + number(m.getMeanMicros())
+                + ",\"p50Micros\":" + number(m.getP50Micros())
+                + ",\"p99Micros\":" + number(m.getP99Micros())
+                + ",\"p999Micros\":" + number(m.getP999Micros())
+                + ",\"maxMicros\":" + number(m.getMaxMicros())
+                + "}";
+    }
+
+    // Элементы уже в виде JSON
+    public static String array(List<String> items) {
+        return "[" + String.join(",", items) + "]";
+    }
+
+    public static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    // Плоский объект: значения String, Double, Boolean или null; вложенные объекты и массивы не поддерживаются
+    public static Map<String, Object> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, Object> result = parser.object();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+        return result;
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                result.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return result;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (!atEnd() && "+-0123456789.eE".indexOf(peek()) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Unsupported value");
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Invalid escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: sb.append(escaped);
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+
+        private char peek() {
+            if (atEnd()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + message);
+        }
+    }
+}
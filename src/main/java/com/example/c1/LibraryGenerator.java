@@ -0,0 +1,232 @@
+package com.example.c1;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Детерминированный генератор синтетической медиатеки для нагрузочных тестов и бенчмарков.
+// Одинаковые seed и справочники всегда дают одинаковые фильмы; сроки считаются от текущей даты
+public class LibraryGenerator {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int LATEST_YEAR = 2024;
+    private static final int OLDEST_YEAR = 1920;
+    // Вселенная рангов для просмотров: ранг r получает около MAX_VIEWS / r просмотров
+    private static final int MAX_VIEWS = 1_000_000;
+    private static final double DUPLICATE_RATE = 0.03;
+    private static final int RECENT_WINDOW = 4096;
+    private static final double SCHEDULE_RATE = 0.1;
+    private static final double RESCHEDULE_RATE = 0.3;
+    private static final double TRANSLATED_TITLE_RATE = 0.6;
+
+    // Параллельные словари: русское название - перевод оригинального
+    private static final String[] EN_ADJECTIVES = {
+            "Silent", "Last", "Dark", "Distant", "Red", "Northern", "Cold", "Golden",
+            "Midnight", "Big", "Old", "New", "Lost", "Wild", "Secret", "White"
+    };
+    private static final String[] RU_ADJECTIVES = {
+            "Тихий", "Последний", "Тёмный", "Далёкий", "Красный", "Северный", "Холодный", "Золотой",
+            "Полночный", "Большой", "Старый", "Новый", "Потерянный", "Дикий", "Тайный", "Белый"
+    };
+    private static final String[] EN_NOUNS = {
+            "City", "Shore", "Train", "Dawn", "Forest", "Ocean", "Road", "Dream",
+            "House", "Wind", "Bridge", "Horizon", "Storm", "Garden", "Signal", "Island"
+    };
+    private static final String[] RU_NOUNS = {
+            "город", "берег", "поезд", "рассвет", "лес", "океан", "путь", "сон",
+            "дом", "ветер", "мост", "горизонт", "шторм", "сад", "сигнал", "остров"
+    };
+    // Слоги имён собственных в двух алфавитах
+    private static final String[] EN_SYLLABLES = {
+            "ka", "ri", "mo", "ta", "len", "vor", "si", "da", "nu", "bel",
+            "ar", "go", "mi", "ra", "ton", "el", "za", "vi", "dor", "na"
+    };
+    private static final String[] RU_SYLLABLES = {
+            "ка", "ри", "мо", "та", "лен", "вор", "си", "да", "ну", "бел",
+            "ар", "го", "ми", "ра", "тон", "эль", "за", "ви", "дор", "на"
+    };
+    private static final String[] RESCHEDULE_REASONS = {
+            "Нет времени", "Перенос по просьбе друзей", "Фильм недоступен", "Командировка", "Болезнь"
+    };
+
+    private final Random random;
+    // Сроки берут случайность из отдельного потока, чтобы фильмы не зависели от того, пишутся ли сроки
+    private final Random scheduleRandom;
+    private final List<Genre> genres;
+    private final List<Director> directors;
+    private final Movie[] recent = new Movie[RECENT_WINDOW];
+    private int generated;
+
+    public LibraryGenerator(long seed, List<Genre> genres, List<Director> directors) {
+        if (genres.isEmpty() || directors.isEmpty()) {
+            throw new IllegalArgumentException("Genres and directors must not be empty");
+        }
+        this.random = new Random(seed);
+        this.scheduleRandom = new Random(seed ^ 0x5DEECE66DL);
+        this.genres = genres;
+        this.directors = directors;
+    }
+
+    public LibraryGenerator(long seed, MovieDAO dao) {
+        this(seed, dao.getGenreDAO().getAllGenres(), dao.getDirectorDAO().getAllDirectors());
+    }
+
+    // Новый фильм без id; небольшая доля - вариант одного из недавних (точный или нечёткий дубликат)
+    public Movie nextMovie() {
+        Movie movie = generated > 0 && random.nextDouble() < DUPLICATE_RATE
+                ? duplicateOf(recent[random.nextInt(Math.min(generated, RECENT_WINDOW))])
+                : freshMovie();
+        recent[generated % RECENT_WINDOW] = movie;
+        generated++;
+        return movie;
+    }
+
+    public List<Movie> nextMovies(int count) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            movies.add(nextMovie());
+        }
+        return movies;
+    }
+
+    // Сроки для части уже сохранённых фильмов (нужны их id), у некоторых - история переносов
+    public List<MovieSchedule> schedulesFor(List<Movie> movies) {
+        LocalDate today = LocalDate.now();
+        List<MovieSchedule> schedules = new ArrayList<>();
+        for (Movie movie : movies) {
+            if (scheduleRandom.nextDouble() < SCHEDULE_RATE) {
+                schedules.add(schedule(movie.getId(), today));
+            }
+        }
+        return schedules;
+    }
+
+    // Пишет count фильмов и их сроки пачками через addMovies/addSchedules в одной массовой загрузке
+    public void writeTo(MovieDAO dao, int count) {
+        dao.bulkLoad(() -> {
+            for (int from = 0; from < count; from += BATCH_SIZE) {
+                List<Movie> batch = nextMovies(Math.min(BATCH_SIZE, count - from));
+                dao.addMovies(batch);
+                dao.addSchedules(schedulesFor(batch));
+            }
+        });
+    }
+
+    // Файл в формате MovieCSVDAO с id от 1; сроки в CSV не хранятся
+    public void writeCsv(String filePath, int count) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
+            pw.println(MovieCSVDAO.CSV_HEADER);
+            for (int id = 1; id <= count; id++) {
+                Movie movie = nextMovie();
+                pw.println(String.format(Locale.ROOT, "%d;%s;%s;%d;%.1f;%d;%d;%d",
+                        id,
+                        movie.getTitle(),
+                        movie.getOriginalTitle(),
+                        movie.getYear(),
+                        movie.getImdbRating(),
+                        movie.getViews(),
+                        movie.getDirector().getId(),
+                        movie.getGenre().getId()));
+            }
+        }
+    }
+
+    private Movie freshMovie() {
+        int adjective = random.nextInt(EN_ADJECTIVES.length);
+        int noun = random.nextInt(EN_NOUNS.length);
+        int syllables = 2 + random.nextInt(2);
+        StringBuilder enName = new StringBuilder();
+        StringBuilder ruName = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            int syllable = random.nextInt(EN_SYLLABLES.length);
+            enName.append(EN_SYLLABLES[syllable]);
+            ruName.append(RU_SYLLABLES[syllable]);
+        }
+        String originalTitle = EN_ADJECTIVES[adjective] + " " + EN_NOUNS[noun] + " " + capitalize(enName.toString());
+        String title = random.nextDouble() < TRANSLATED_TITLE_RATE
+                ? RU_ADJECTIVES[adjective] + " " + RU_NOUNS[noun] + " " + capitalize(ruName.toString())
+                : originalTitle;
+
+        // Годы сгущаются к последним десятилетиям
+        int year = Math.max(OLDEST_YEAR, LATEST_YEAR - (int) Math.abs(random.nextGaussian() * 18));
+        return new Movie(0, title, originalTitle, year, nextRating(), nextViews(),
+                directors.get(zipfRank(directors.size()) - 1),
+                genres.get(random.nextInt(genres.size())));
+    }
+
+    // Варианты, которые ловят findDuplicatesByTmdb (точная копия) и DuplicateDetector (остальные)
+    private Movie duplicateOf(Movie source) {
+        String title = source.getTitle();
+        String originalTitle = source.getOriginalTitle();
+        int year = source.getYear();
+        switch (random.nextInt(5)) {
+            case 0:
+                break;
+            case 1:
+                title = title.toUpperCase(Locale.ROOT);
+                originalTitle = originalTitle.toLowerCase(Locale.ROOT);
+                break;
+            case 2:
+                title = title.replaceFirst(" ", ": ");
+                originalTitle = originalTitle + "!";
+                break;
+            case 3:
+                title = capitalize(DuplicateDetector.normalize(title));
+                break;
+            default:
+                year += random.nextBoolean() ? 1 : -1;
+                break;
+        }
+        return new Movie(0, title, originalTitle, year, nextRating(), nextViews(),
+                source.getDirector(), source.getGenre());
+    }
+
+    private double nextRating() {
+        double rating = 6.4 + random.nextGaussian() * 1.3;
+        return Math.round(Math.min(9.8, Math.max(1.0, rating)) * 10) / 10.0;
+    }
+
+    private int nextViews() {
+        return MAX_VIEWS / zipfRank(MAX_VIEWS) + random.nextInt(10);
+    }
+
+    // Ранг от 1 до n с вероятностью примерно 1/r: логарифм ранга распределён равномерно
+    private int zipfRank(int n) {
+        int rank = (int) Math.exp(random.nextDouble() * Math.log(n + 1));
+        return Math.min(n, Math.max(1, rank));
+    }
+
+    private MovieSchedule schedule(int movieId, LocalDate today) {
+        LocalDate plannedDate = today.plusDays(scheduleRandom.nextInt(120) - 30);
+        int changes = scheduleRandom.nextDouble() < RESCHEDULE_RATE ? 1 + scheduleRandom.nextInt(3) : 0;
+
+        // История восстанавливается от первого срока: каждый перенос сдвигает дату вперёд
+        LocalDate[] dates = new LocalDate[changes + 1];
+        dates[changes] = plannedDate;
+        for (int i = changes - 1; i >= 0; i--) {
+            dates[i] = dates[i + 1].minusDays(3 + scheduleRandom.nextInt(18));
+        }
+        MovieSchedule schedule = new MovieSchedule(movieId, dates[0]);
+        for (int i = 1; i <= changes; i++) {
+            LocalDate changeDate = today.minusDays((long) (changes - i) * 7 + scheduleRandom.nextInt(7));
+            String reason = RESCHEDULE_REASONS[scheduleRandom.nextInt(RESCHEDULE_REASONS.length)];
+            schedule.setPlannedDate(dates[i], reason, changeDate);
+        }
+
+        if (plannedDate.isBefore(today) && scheduleRandom.nextBoolean()) {
+            schedule.markAsCompleted(plannedDate.plusDays(scheduleRandom.nextInt(4)));
+        } else if (!plannedDate.isAfter(today.plusDays(7)) && scheduleRandom.nextBoolean()) {
+            schedule.setReminderSent(true);
+        }
+        return schedule;
+    }
+
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
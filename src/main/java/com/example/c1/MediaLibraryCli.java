@@ -0,0 +1,357 @@
+package com.example.c1;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Пакетный режим без JavaFX: поднимает только нужные MovieDAO, выполняет одну операцию
+// и печатает результат одной строкой JSON в stdout. Коды выхода: 0 - успех, 1 - ошибка, 2 - неверные аргументы.
+//   stats   --source=H2|CSV|SQLITE
+//   dedup   --source=...
+//   import  --source=... --file=movies.csv
+//   export  --source=... --file=out.csv
+//   migrate --from=... --to=...
+public class MediaLibraryCli {
+    // Диапазон дат, покрывающий все сроки при переносе между источниками
+    private static final LocalDate SCHEDULES_FROM = LocalDate.of(1900, 1, 1);
+    private static final LocalDate SCHEDULES_TO = LocalDate.of(9999, 12, 31);
+
+    private final PrintStream out;
+    private final Map<String, String> options;
+    private long readyNanos;
+
+    MediaLibraryCli(PrintStream out, Map<String, String> options) {
+        this.out = out;
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out));
+    }
+
+    public static int run(String[] args, PrintStream out) {
+        if (args.length == 0) {
+            return usage("No command given");
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                return usage("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        // Метрики и JMX для разового запуска не нужны и заметно удлиняют старт
+        DAOFactory.setInstrumentationEnabled(false);
+        MediaLibraryCli cli = new MediaLibraryCli(out, options);
+        String command = args[0];
+        long start = System.nanoTime();
+        try {
+            String result;
+            switch (command) {
+                case "stats": result = cli.stats(); break;
+                case "dedup": result = cli.dedup(); break;
+                case "import": result = cli.importMovies(); break;
+                case "export": result = cli.exportMovies(); break;
+                case "migrate": result = cli.migrate(); break;
+                default: return usage("Unknown command: " + command);
+            }
+            cli.print(command, start, "\"result\":" + result);
+            return 0;
+        } catch (UsageException e) {
+            return usage(e.getMessage());
+        } catch (RuntimeException e) {
+            String message = e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage();
+            cli.print(command, start, "\"error\":" + Json.quote(message));
+            System.err.println("Error running " + command + ": " + message);
+            return 1;
+        } finally {
+            DAOFactory.closeAll();
+        }
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: MediaLibraryCli <command> [--name=value ...]");
+        System.err.println("  stats   --source=H2|CSV|SQLITE");
+        System.err.println("  dedup   --source=H2|CSV|SQLITE");
+        System.err.println("  import  --source=H2|CSV|SQLITE --file=movies.csv");
+        System.err.println("  export  --source=H2|CSV|SQLITE --file=out.csv");
+        System.err.println("  migrate --from=H2|CSV|SQLITE --to=H2|CSV|SQLITE");
+        return 2;
+    }
+
+    // startupMillis - от запуска процесса до готовности DAO, elapsedMillis - сама операция
+    private void print(String command, long startNanos, String payload) {
+        long now = System.nanoTime();
+        long operationStart = readyNanos == 0 ? startNanos : readyNanos;
+        // Время старта JVM из RuntimeMXBean: ProcessHandle на Linux даёт его с ошибкой до секунды
+        long startup = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()
+                - (now - operationStart) / 1_000_000;
+        out.println("{\"command\":" + Json.quote(command)
+                + ",\"startupMillis\":" + startup
+                + ",\"elapsedMillis\":" + (now - operationStart) / 1_000_000
+                + "," + payload + "}");
+    }
+
+    private String stats() {
+        MovieDAO dao = open("source");
+        List<Movie> movies = dao.getAllMovies();
+        long totalViews = 0;
+        double ratingSum = 0;
+        Map<Integer, Integer> moviesByGenre = new HashMap<>();
+        Map<Integer, long[]> byDirector = new HashMap<>();
+        for (Movie movie : movies) {
+            totalViews += movie.getViews();
+            ratingSum += movie.getImdbRating();
+            if (movie.getGenre() != null) {
+                moviesByGenre.merge(movie.getGenre().getId(), 1, Integer::sum);
+            }
+            if (movie.getDirector() != null) {
+                long[] counts = byDirector.computeIfAbsent(movie.getDirector().getId(), id -> new long[2]);
+                counts[0]++;
+                counts[1] += movie.getViews();
+            }
+        }
+
+        List<String> genres = new ArrayList<>();
+        for (Genre genre : dao.getGenreDAO().getAllGenres()) {
+            genres.add("{\"id\":" + genre.getId() + ",\"name\":" + Json.quote(genre.getName())
+                    + ",\"movies\":" + moviesByGenre.getOrDefault(genre.getId(), 0) + "}");
+        }
+        List<String> directors = new ArrayList<>();
+        for (Director director : dao.getDirectorDAO().getAllDirectors()) {
+            long[] counts = byDirector.getOrDefault(director.getId(), new long[2]);
+            double share = totalViews == 0 ? 0 : (double) counts[1] / totalViews * 100;
+            directors.add("{\"id\":" + director.getId() + ",\"name\":" + Json.quote(director.getName())
+                    + ",\"movies\":" + counts[0] + ",\"viewPercentage\":" + Json.number(share) + "}");
+        }
+        return "{\"source\":" + Json.quote(option("source"))
+                + ",\"movies\":" + movies.size()
+                + ",\"totalViews\":" + totalViews
+                + ",\"averageRating\":" + Json.number(movies.isEmpty() ? 0 : ratingSum / movies.size())
+                + ",\"genres\":" + Json.array(genres)
+                + ",\"directors\":" + Json.array(directors) + "}";
+    }
+
+    private String dedup() {
+        MovieDAO dao = open("source");
+        List<List<Movie>> clusters = dao.findDuplicateClusters();
+        List<String> items = new ArrayList<>();
+        int duplicateMovies = 0;
+        for (List<Movie> cluster : clusters) {
+            duplicateMovies += cluster.size();
+            items.add(Json.array(cluster.stream().map(Json::movie).toList()));
+        }
+        return "{\"source\":" + Json.quote(option("source"))
+                + ",\"clusters\":" + clusters.size()
+                + ",\"duplicateMovies\":" + duplicateMovies
+                + ",\"items\":" + Json.array(items) + "}";
+    }
+
+    // Файл читается через MovieCSVDAO, поэтому импорт работает для любого источника, а не только для CSV
+    private String importMovies() {
+        String file = option("file");
+        if (!new File(file).isFile()) {
+            throw new IllegalArgumentException("File not found: " + file);
+        }
+        MovieDAO target = open("source");
+        List<Movie> copies;
+        try (MovieCSVDAO csv = new MovieCSVDAO(DAOFactory.getGenreDAO(), DAOFactory.getDirectorDAO(), file)) {
+            copies = copyMovies(csv.getAllMovies(), target, false);
+        }
+        target.addMovies(copies);
+        return "{\"source\":" + Json.quote(option("source"))
+                + ",\"file\":" + Json.quote(file)
+                + ",\"imported\":" + copies.size() + "}";
+    }
+
+    // Существующий файл перезаписывается; id фильмов сохраняются
+    private String exportMovies() {
+        String file = option("file");
+        MovieDAO source = open("source");
+        List<Movie> movies = source.getAllMovies();
+        File target = new File(file);
+        if (target.exists() && !target.delete()) {
+            throw new IllegalStateException("Cannot overwrite " + file);
+        }
+        try (MovieCSVDAO csv = new MovieCSVDAO(DAOFactory.getGenreDAO(), DAOFactory.getDirectorDAO(), file)) {
+            csv.addMovies(copyMovies(movies, csv, true));
+        }
+        return "{\"source\":" + Json.quote(option("source"))
+                + ",\"file\":" + Json.quote(file)
+                + ",\"exported\":" + movies.size() + "}";
+    }
+
+    // Фильмы получают новые id в целевом источнике; сроки и история переносов переносятся по соответствию id
+    private String migrate() {
+        if (option("from").equalsIgnoreCase(option("to"))) {
+            throw new UsageException("Source and target must differ");
+        }
+        MovieDAO source = open("from");
+        MovieDAO target = open("to");
+
+        List<Movie> movies = source.getAllMovies();
+        List<Movie> copies = copyMovies(movies, target, false);
+        target.addMovies(copies);
+        Map<Integer, Integer> newIds = new HashMap<>();
+        for (int i = 0; i < movies.size(); i++) {
+            newIds.put(movies.get(i).getId(), copies.get(i).getId());
+        }
+
+        List<MovieSchedule> schedules = new ArrayList<>();
+        for (MovieSchedule schedule : source.getSchedulesBetween(SCHEDULES_FROM, SCHEDULES_TO)) {
+            Integer movieId = newIds.get(schedule.getMovieId());
+            if (movieId != null) {
+                schedules.add(copySchedule(schedule, movieId, source.getScheduleHistory(schedule.getMovieId())));
+            }
+        }
+        target.addSchedules(schedules);
+        verifySchedules(target, schedules);
+        return "{\"from\":" + Json.quote(option("from"))
+                + ",\"to\":" + Json.quote(option("to"))
+                + ",\"movies\":" + copies.size()
+                + ",\"schedules\":" + schedules.size() + "}";
+    }
+
+    // Жанры и режиссёры берутся из справочников целевого источника по id
+    private static List<Movie> copyMovies(List<Movie> movies, MovieDAO target, boolean keepIds) {
+        Map<Integer, Genre> genres = new LinkedHashMap<>();
+        for (Genre genre : target.getGenreDAO().getAllGenres()) {
+            genres.put(genre.getId(), genre);
+        }
+        Map<Integer, Director> directors = new LinkedHashMap<>();
+        for (Director director : target.getDirectorDAO().getAllDirectors()) {
+            directors.put(director.getId(), director);
+        }
+
+        List<Movie> copies = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            Genre genre = movie.getGenre() == null ? null : genres.get(movie.getGenre().getId());
+            Director director = movie.getDirector() == null ? null : directors.get(movie.getDirector().getId());
+            if (genre == null || director == null) {
+                throw new IllegalArgumentException("Movie " + movie.getId() + " refers to a genre or director unknown to the target");
+            }
+            copies.add(new Movie(keepIds ? movie.getId() : 0, movie.getTitle(), movie.getOriginalTitle(),
+                    movie.getYear(), movie.getImdbRating(), movie.getViews(), director, genre));
+        }
+        return copies;
+    }
+
+    // Текущий срок берётся из источника как есть, история переносов - в хронологическом порядке,
+    // как её записывают addSchedules и updateMovieSchedule
+    private static MovieSchedule copySchedule(MovieSchedule schedule, int movieId, List<ScheduleChange> history) {
+        MovieSchedule copy = new MovieSchedule(movieId, schedule.getPlannedDate());
+        copy.getChangeHistory().addAll(chronological(history));
+        if (schedule.getCompletionDate() != null) {
+            copy.markAsCompleted(schedule.getCompletionDate());
+        }
+        copy.setReminderSent(schedule.isReminderSent());
+        return copy;
+    }
+
+    // H2 и SQLite отдают историю от новых переносов к старым, CSV - в порядке добавления.
+    // Дата переноса - только день, поэтому среди переносов одного дня следующим берётся тот,
+    // что начинается с даты, на которой закончился предыдущий
+    private static List<ScheduleChange> chronological(List<ScheduleChange> history) {
+        List<ScheduleChange> pending = new ArrayList<>(history);
+        pending.sort(Comparator.comparing(ScheduleChange::getChangeDate));
+        List<ScheduleChange> ordered = new ArrayList<>(pending.size());
+        LocalDate current = null;
+        while (!pending.isEmpty()) {
+            ScheduleChange next = pending.get(0);
+            for (ScheduleChange change : pending) {
+                if (!change.getChangeDate().equals(next.getChangeDate())) {
+                    break;
+                }
+                if (current == null ? !continuesSameDay(pending, change) : change.getOldDate().equals(current)) {
+                    next = change;
+                    break;
+                }
+            }
+            pending.remove(next);
+            ordered.add(next);
+            current = next.getNewDate();
+        }
+        return ordered;
+    }
+
+    // Перенос продолжает другой перенос того же дня, если начинается с его новой даты
+    private static boolean continuesSameDay(List<ScheduleChange> changes, ScheduleChange change) {
+        for (ScheduleChange other : changes) {
+            if (other != change && other.getChangeDate().equals(change.getChangeDate())
+                    && other.getNewDate().equals(change.getOldDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Перенесённые сроки читаются обратно из целевого источника: срок, отметка о просмотре
+    // и история должны совпасть с тем, что было записано
+    private static void verifySchedules(MovieDAO target, List<MovieSchedule> schedules) {
+        for (MovieSchedule expected : schedules) {
+            int movieId = expected.getMovieId();
+            MovieSchedule actual = target.getMovieSchedule(movieId);
+            if (actual == null
+                    || !actual.getPlannedDate().equals(expected.getPlannedDate())
+                    || !Objects.equals(actual.getCompletionDate(), expected.getCompletionDate())
+                    || !sameHistory(chronological(target.getScheduleHistory(movieId)), expected.getChangeHistory())) {
+                throw new IllegalStateException("Schedule of movie " + movieId + " differs after migration");
+            }
+        }
+    }
+
+    private static boolean sameHistory(List<ScheduleChange> actual, List<ScheduleChange> expected) {
+        if (actual.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            ScheduleChange a = actual.get(i);
+            ScheduleChange e = expected.get(i);
+            if (!a.getOldDate().equals(e.getOldDate()) || !a.getNewDate().equals(e.getNewDate())
+                    || !Objects.equals(a.getReason(), e.getReason()) || !a.getChangeDate().equals(e.getChangeDate())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MovieDAO open(String option) {
+        DAOFactory.DataSourceType type;
+        try {
+            type = DAOFactory.DataSourceType.valueOf(option(option).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Unknown data source: " + option(option));
+        }
+        MovieDAO dao = DAOFactory.getMovieDAO(type);
+        readyNanos = System.nanoTime();
+        return dao;
+    }
+
+    private String option(String name) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new UsageException("Missing option --" + name);
+        }
+        return value;
+    }
+
+    private static class UsageException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+}
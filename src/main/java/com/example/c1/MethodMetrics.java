@@ -0,0 +1,46 @@
+package com.example.c1;
+
+// Снимок метрик одного метода DAO для JMX; время в микросекундах
+public class MethodMetrics {
+    private final String method;
+    private final long calls;
+    private final long errors;
+    private final long rows;
+    private final double callsPerSecond;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    public MethodMetrics(String method, long calls, long errors, long rows, double callsPerSecond,
+                         double meanMicros, double p50Micros, double p99Micros, double p999Micros, double maxMicros) {
+        this.method = method;
+        this.calls = calls;
+        this.errors = errors;
+        this.rows = rows;
+        this.callsPerSecond = callsPerSecond;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getMethod() { return method; }
+    public long getCalls() { return calls; }
+    public long getErrors() { return errors; }
+    public long getRows() { return rows; }
+    public double getCallsPerSecond() { return callsPerSecond; }
+    public double getMeanMicros() { return meanMicros; }
+    public double getP50Micros() { return p50Micros; }
+    public double getP99Micros() { return p99Micros; }
+    public double getP999Micros() { return p999Micros; }
+    public double getMaxMicros() { return maxMicros; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: calls=%d errors=%d rows=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+                method, calls, errors, rows, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
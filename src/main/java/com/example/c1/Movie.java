@@ -13,6 +13,9 @@ public class Movie implements Serializable {
     private int views;
     private Director director;
     private Genre genre;
+    // Ключи сортировки названий; сбрасываются при смене названия и пересчитываются по требованию
+    private transient byte[] titleSortKey;
+    private transient byte[] originalTitleSortKey;
 
     public Movie(int id, String title, String originalTitle, int year,
                  double imdbRating, int views, Director director, Genre genre) {
@@ -30,9 +33,9 @@ public class Movie implements Serializable {
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) { this.title = title; this.titleSortKey = null; }
     public String getOriginalTitle() { return originalTitle; }
-    public void setOriginalTitle(String originalTitle) { this.originalTitle = originalTitle; }
+    public void setOriginalTitle(String originalTitle) { this.originalTitle = originalTitle; this.originalTitleSortKey = null; }
     public int getYear() { return year; }
     public void setYear(int year) { this.year = year; }
     public double getImdbRating() { return imdbRating; }
@@ -44,6 +47,20 @@ public class Movie implements Serializable {
     public Genre getGenre() { return genre; }
     public void setGenre(Genre genre) { this.genre = genre; }
 
+    public byte[] getTitleSortKey() {
+        if (titleSortKey == null) {
+            titleSortKey = TitleCollation.sortKey(title);
+        }
+        return titleSortKey;
+    }
+
+    public byte[] getOriginalTitleSortKey() {
+        if (originalTitleSortKey == null) {
+            originalTitleSortKey = TitleCollation.sortKey(originalTitle);
+        }
+        return originalTitleSortKey;
+    }
+
     @Override
     public String toString() {
         return title + " (" + year + ")";
@@ -0,0 +1,475 @@
+package com.example.c1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// HTTP API без JavaFX поверх одного MovieDAO: JSON-эндпоинты для фильмов, поиска, статистики и сроков.
+// Каждый запрос обрабатывается в своём виртуальном потоке, но вызовы DAO идут по одному:
+// общий DAO из DAOFactory.getMovieDAO сам берёт блокировку (SynchronizedMovieDAO),
+// параллельно выполняются только разбор запроса и сборка JSON.
+// Запуск: java ... com.example.c1.MovieApiServer --source=H2|CSV|SQLITE --port=8080
+public class MovieApiServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final MovieDAO movieDAO;
+    private final DAOFactory.DataSourceType sourceType;
+    // Только для составных операций (прочитать - изменить), отдельные вызовы защищает сам DAO
+    private final Lock scheduleLock = new ReentrantLock();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // movieDAO должен быть потокобезопасным, как DAO из DAOFactory.getMovieDAO
+    public MovieApiServer(DAOFactory.DataSourceType sourceType, MovieDAO movieDAO) {
+        this.sourceType = sourceType;
+        this.movieDAO = movieDAO;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        DAOFactory.DataSourceType type = DAOFactory.DataSourceType.valueOf(
+                options.getOrDefault("source", "H2").toUpperCase());
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+
+        MovieApiServer apiServer = new MovieApiServer(type, DAOFactory.getMovieDAO(type));
+        apiServer.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            DAOFactory.closeAll();
+        }));
+        System.out.println("Media library API (" + type + ") listening on http://localhost:" + apiServer.getPort() + "/api/");
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    // port = 0 - любой свободный порт, см. getPort()
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/api/", this::handle);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            server = null;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Виртуальные потоки - стандартные с Java 21; на 19-20 это preview API, поэтому фабрика ищется
+    // через reflection: сборка с target 19 не требует --enable-preview, а без него остаётся пул платформенных
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String body;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.substring("/api/".length()).split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            Request request = new Request(exchange.getRequestMethod(), segments,
+                    parseQuery(exchange.getRequestURI().getRawQuery()), exchange);
+            body = route(request);
+            status = request.status;
+        } catch (ApiException e) {
+            status = e.status;
+            body = Json.error(e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            status = 400;
+            body = Json.error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = Json.error(e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage());
+        }
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String route(Request request) throws IOException {
+        List<String> path = request.path;
+        String method = request.method;
+        String resource = path.isEmpty() ? "" : path.get(0);
+
+        switch (resource) {
+            case "movies":
+                if (path.size() == 1) {
+                    if (method.equals("GET")) return listMovies(request);
+                    if (method.equals("POST")) return addMovie(request);
+                } else if (path.size() == 2) {
+                    int id = parseId(path.get(1));
+                    if (method.equals("PUT")) return updateMovie(request, id);
+                    if (method.equals("DELETE")) return deleteMovie(request, id);
+                } else if (path.size() >= 3) {
+                    return routeMovieSchedule(request, parseId(path.get(1)), path.subList(2, path.size()));
+                }
+                break;
+            case "search":
+                if (method.equals("GET") && path.size() == 1) return smartSearch(request);
+                if (method.equals("GET") && path.size() == 2 && path.get(1).equals("title")) return titleSearch(request);
+                break;
+            case "genres":
+                if (method.equals("GET") && path.size() == 1) {
+                    return Json.array(movieDAO.getGenreDAO().getAllGenres().stream()
+                            .map(g -> Json.named(g.getId(), g.getName())).toList());
+                }
+                break;
+            case "directors":
+                if (method.equals("GET") && path.size() == 1) {
+                    return Json.array(movieDAO.getDirectorDAO().getAllDirectors().stream()
+                            .map(d -> Json.named(d.getId(), d.getName())).toList());
+                }
+                break;
+            case "stats":
+                if (method.equals("GET") && path.size() == 1) return statistics();
+                break;
+            case "schedules":
+                if (method.equals("GET") && path.size() == 1) return schedulesBetween(request);
+                if (method.equals("GET") && path.size() == 2 && path.get(1).equals("upcoming")) return upcoming(request);
+                break;
+            default:
+                throw new ApiException(404, "Unknown resource: /api/" + String.join("/", path));
+        }
+        throw new ApiException(405, method + " not supported for /api/" + String.join("/", path));
+    }
+
+    private String routeMovieSchedule(Request request, int movieId, List<String> rest) throws IOException {
+        String method = request.method;
+        if (rest.get(0).equals("schedule")) {
+            if (rest.size() == 1 && method.equals("GET")) {
+                MovieSchedule schedule = movieDAO.getMovieSchedule(movieId);
+                if (schedule == null) {
+                    throw new ApiException(404, "No schedule for movie " + movieId);
+                }
+                return Json.schedule(schedule);
+            }
+            if (rest.size() == 1 && method.equals("PUT")) return putSchedule(request, movieId);
+            if (rest.size() == 2 && rest.get(1).equals("history") && method.equals("GET")) {
+                return Json.array(movieDAO.getScheduleHistory(movieId).stream().map(Json::change).toList());
+            }
+        } else if (rest.get(0).equals("watched") && rest.size() == 1 && method.equals("POST")) {
+            movieDAO.markMovieAsWatched(movieId);
+            request.status = 204;
+            return null;
+        }
+        throw new ApiException(405, method + " not supported for /api/movies/" + movieId + "/" + String.join("/", rest));
+    }
+
+    private String listMovies(Request request) {
+        MovieQuery.Builder query = MovieQuery.builder()
+                .offset(request.intParam("offset", 0))
+                .limit(Math.min(request.intParam("limit", DEFAULT_LIMIT), MAX_LIMIT));
+        if (request.has("genre")) query.genres(request.intParam("genre", 0));
+        if (request.has("director")) query.directors(request.intParam("director", 0));
+        if (request.has("minYear")) query.minYear(request.intParam("minYear", 0));
+        if (request.has("maxYear")) query.maxYear(request.intParam("maxYear", 0));
+        if (request.has("minRating")) query.minRating(request.doubleParam("minRating", 0));
+        if (request.has("maxRating")) query.maxRating(request.doubleParam("maxRating", 0));
+        SortField sort = SortField.valueOf(request.param("sort", "ID").toUpperCase());
+        query.sortBy(sort, Boolean.parseBoolean(request.param("desc", "false")));
+        return moviesJson(movieDAO.find(query.build()));
+    }
+
+    private String addMovie(Request request) throws IOException {
+        Map<String, Object> fields = Json.parseObject(request.body());
+        Movie movie = movieFromJson(fields, new Movie(0, null, null, 0, 0, 0, null, null));
+        movieDAO.addMovie(movie);
+        request.status = 201;
+        return Json.movie(movie);
+    }
+
+    // PUT заменяет фильм целиком, поэтому нужны все поля, кроме originalTitle: пропущенные
+    // год, рейтинг и просмотры иначе молча стали бы нулями
+    private String updateMovie(Request request, int id) throws IOException {
+        Map<String, Object> fields = Json.parseObject(request.body());
+        for (String name : List.of("year", "imdbRating", "views")) {
+            if (!fields.containsKey(name)) {
+                throw new IllegalArgumentException("PUT replaces the whole movie, field '" + name + "' is required");
+            }
+        }
+        Movie movie = movieFromJson(fields, new Movie(id, null, null, 0, 0, 0, null, null));
+        if (!movieDAO.updateMovie(movie)) {
+            throw new ApiException(404, "No movie " + id);
+        }
+        return Json.movie(movie);
+    }
+
+    private String deleteMovie(Request request, int id) {
+        movieDAO.deleteMovie(id);
+        request.status = 204;
+        return null;
+    }
+
+    // Поля, которых нет в запросе, остаются как в base; название, режиссёр и жанр обязательны
+    private Movie movieFromJson(Map<String, Object> fields, Movie base) {
+        if (fields.containsKey("title")) base.setTitle(requireString(fields, "title"));
+        if (fields.containsKey("originalTitle")) base.setOriginalTitle(requireString(fields, "originalTitle"));
+        if (fields.containsKey("year")) base.setYear(requireNumber(fields, "year").intValue());
+        if (fields.containsKey("imdbRating")) base.setImdbRating(requireNumber(fields, "imdbRating"));
+        if (fields.containsKey("views")) base.setViews(requireNumber(fields, "views").intValue());
+        if (fields.containsKey("directorId")) {
+            int directorId = requireNumber(fields, "directorId").intValue();
+            Director director = movieDAO.getDirectorDAO().getDirectorById(directorId);
+            if (director == null) {
+                throw new IllegalArgumentException("Unknown directorId: " + directorId);
+            }
+            base.setDirector(director);
+        }
+        if (fields.containsKey("genreId")) {
+            int genreId = requireNumber(fields, "genreId").intValue();
+            Genre genre = movieDAO.getGenreDAO().getGenreById(genreId);
+            if (genre == null) {
+                throw new IllegalArgumentException("Unknown genreId: " + genreId);
+            }
+            base.setGenre(genre);
+        }
+        if (base.getTitle() == null || base.getDirector() == null || base.getGenre() == null) {
+            throw new IllegalArgumentException("title, directorId and genreId are required");
+        }
+        if (base.getOriginalTitle() == null) {
+            base.setOriginalTitle(base.getTitle());
+        }
+        return base;
+    }
+
+    private String smartSearch(Request request) {
+        int genreId = request.intParam("genre", -1);
+        double minRating = request.doubleParam("minRating", 0);
+        int minYear = request.intParam("minYear", 0);
+        Genre genre = movieDAO.getGenreDAO().getGenreById(genreId);
+        if (genre == null) {
+            throw new IllegalArgumentException("Unknown genre: " + genreId);
+        }
+        return moviesJson(movieDAO.smartSearch(genre, minRating, minYear));
+    }
+
+    private String titleSearch(Request request) {
+        String q = request.param("q", "");
+        int limit = Math.min(request.intParam("limit", DEFAULT_LIMIT), MAX_LIMIT);
+        return moviesJson(movieDAO.searchByTitle(q, limit));
+    }
+
+    // Доля просмотров по режиссёрам и метрики вызовов DAO этого источника
+    private String statistics() {
+        StringBuilder sb = new StringBuilder("{\"source\":").append(Json.quote(sourceType.name()));
+        List<String> directors = new ArrayList<>();
+        for (Director director : movieDAO.getDirectorDAO().getAllDirectors()) {
+            directors.add("{\"id\":" + director.getId() + ",\"name\":" + Json.quote(director.getName())
+                    + ",\"viewPercentage\":" + Json.number(movieDAO.getDirectorViewPercentage(director)) + "}");
+        }
+        sb.append(",\"directors\":").append(Json.array(directors));
+
+        MovieDAOMetrics metrics = DAOFactory.getMetrics(sourceType);
+        sb.append(",\"calls\":{\"total\":").append(metrics.getTotalCalls())
+                .append(",\"errors\":").append(metrics.getTotalErrors())
+                .append(",\"methods\":{");
+        boolean first = true;
+        for (Map.Entry<String, MethodMetrics> entry : metrics.getMethods().entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(Json.quote(entry.getKey())).append(':').append(Json.metrics(entry.getValue()));
+        }
+        return sb.append("}}}").toString();
+    }
+
+    private String putSchedule(Request request, int movieId) throws IOException {
+        Map<String, Object> fields = Json.parseObject(request.body());
+        LocalDate plannedDate = LocalDate.parse(requireString(fields, "plannedDate"));
+        Object reason = fields.get("reason");
+        // Два параллельных PUT иначе оба увидели бы, что срока нет, и второй потерял бы историю переноса
+        scheduleLock.lock();
+        try {
+            if (movieDAO.getMovieSchedule(movieId) == null) {
+                movieDAO.setMovieSchedule(movieId, plannedDate);
+            } else {
+                movieDAO.updateMovieSchedule(movieId, plannedDate, reason == null ? "" : reason.toString());
+            }
+            return Json.schedule(movieDAO.getMovieSchedule(movieId));
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private String schedulesBetween(Request request) {
+        LocalDate from = LocalDate.parse(request.param("from", LocalDate.now().toString()));
+        LocalDate to = LocalDate.parse(request.param("to", from.plusMonths(1).toString()));
+        return Json.array(movieDAO.getSchedulesBetween(from, to).stream().map(Json::schedule).toList());
+    }
+
+    private String upcoming(Request request) {
+        int days = request.intParam("days", 3);
+        return moviesJson(movieDAO.getMoviesWithUpcomingDeadlines(days));
+    }
+
+    private static String moviesJson(List<Movie> movies) {
+        StringBuilder sb = new StringBuilder(movies.size() * 200 + 2).append('[');
+        for (int i = 0; i < movies.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(Json.movie(movies.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Invalid id: " + value);
+        }
+    }
+
+    private static String requireString(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static Double requireNumber(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a number");
+        }
+        return (Double) value;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static class Request {
+        final String method;
+        final List<String> path;
+        final Map<String, String> query;
+        final HttpExchange exchange;
+        int status = 200;
+
+        Request(String method, List<String> path, Map<String, String> query, HttpExchange exchange) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.exchange = exchange;
+        }
+
+        String body() throws IOException {
+            return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        boolean has(String name) {
+            return query.containsKey(name);
+        }
+
+        String param(String name, String defaultValue) {
+            return query.getOrDefault(name, defaultValue);
+        }
+
+        int intParam(String name, int defaultValue) {
+            String value = query.get(name);
+            try {
+                return value == null ? defaultValue : Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parameter '" + name + "' must be an integer: " + value);
+            }
+        }
+
+        double doubleParam(String name, double defaultValue) {
+            String value = query.get(name);
+            try {
+                return value == null ? defaultValue : Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parameter '" + name + "' must be a number: " + value);
+            }
+        }
+    }
+
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
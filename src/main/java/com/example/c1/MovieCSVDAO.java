@@ -8,20 +8,38 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class MovieCSVDAO implements MovieDAO {
-    private static final String CSV_HEADER = "id;title;original_title;release_year;imdb_rating;views;director_id;genre_id";
+    static final String CSV_HEADER = "id;title;original_title;release_year;imdb_rating;views;director_id;genre_id";
     private List<Movie> movies = new ArrayList<>();
     private final GenreDAO genreDAO;
     private final DirectorDAO directorDAO;
-    private String currentFilePath = "movies.csv";
+    private String currentFilePath;
     private AtomicInteger idGenerator = new AtomicInteger(1);
 
+    private final IntHashMap<Movie> moviesById = new IntHashMap<>();
+    private final TitleSearchIndex titleIndex = new TitleSearchIndex();
+    private final FacetIndex facetIndex = new FacetIndex();
+    private final MovieQueryPlanner queryPlanner = new MovieQueryPlanner(facetIndex);
+
     // Schedule storage
-    private final Map<Integer, MovieSchedule> schedules = new HashMap<>();
-    private final Map<Integer, List<ScheduleChange>> scheduleHistory = new HashMap<>();
+    private final IntHashMap<MovieSchedule> schedules = new IntHashMap<>();
+    private final IntHashMap<List<ScheduleChange>> scheduleHistory = new IntHashMap<>();
+    private final NavigableSet<MovieSchedule> deadlineIndex = new TreeSet<>(MovieSchedule.BY_PLANNED_DATE);
+
+    // Колоночное представление для фильтрации и агрегатов, сбрасывается при изменениях;
+    // volatile - строится лениво и при параллельных чтениях (HTTP API) должно публиковаться целиком
+    private volatile MovieColumns columns;
+
+    // Подписчики на изменения, уведомляются после сохранения файла
+    private final ChangeNotifier changes = new ChangeNotifier();
 
     public MovieCSVDAO(GenreDAO genreDAO, DirectorDAO directorDAO) {
+        this(genreDAO, directorDAO, "movies.csv");
+    }
+
+    public MovieCSVDAO(GenreDAO genreDAO, DirectorDAO directorDAO, String filePath) {
         this.genreDAO = genreDAO;
         this.directorDAO = directorDAO;
+        this.currentFilePath = filePath;
         ensureFileExists();
         loadFromCSV();
     }
@@ -43,10 +61,14 @@ public class MovieCSVDAO implements MovieDAO {
     private void loadFromCSV() {
         File file = new File(currentFilePath);
         if (file.exists() && file.length() > 0) {
+            CsvFileEvent event = new CsvFileEvent();
+            event.begin();
+            long lines = 0;
             try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
                 String line;
                 boolean firstLine = true;
                 while ((line = br.readLine()) != null) {
+                    lines++;
                     if (firstLine) {
                         firstLine = false;
                         continue;
@@ -67,7 +89,9 @@ public class MovieCSVDAO implements MovieDAO {
                             Genre genre = genreDAO.getGenreById(genreId);
 
                             if (director != null && genre != null) {
-                                movies.add(new Movie(id, title, originalTitle, year, rating, views, director, genre));
+                                Movie movie = new Movie(id, title, originalTitle, year, rating, views, director, genre);
+                                movies.add(movie);
+                                indexMovie(movie);
                                 if (id >= idGenerator.get()) {
                                     idGenerator.set(id + 1);
                                 }
@@ -80,10 +104,41 @@ public class MovieCSVDAO implements MovieDAO {
             } catch (IOException e) {
                 System.err.println("Error reading CSV file: " + e.getMessage());
             }
+            commitFileEvent(event, "load", file, lines);
         }
     }
 
+    private void commitFileEvent(CsvFileEvent event, String operation, File file, long lines) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.lines = lines;
+            event.commit();
+        }
+    }
+
+    // Все вторичные индексы обновляются в одном месте
+    private void indexMovie(Movie movie) {
+        moviesById.put(movie.getId(), movie);
+        titleIndex.add(movie);
+        facetIndex.add(movie);
+        queryPlanner.invalidate();
+        columns = null;
+    }
+
+    private void unindexMovie(int id) {
+        moviesById.remove(id);
+        titleIndex.remove(id);
+        facetIndex.remove(id);
+        queryPlanner.invalidate();
+        columns = null;
+    }
+
     private void saveToCSV() {
+        CsvFileEvent event = new CsvFileEvent();
+        event.begin();
         try (PrintWriter pw = new PrintWriter(new FileWriter(currentFilePath, StandardCharsets.UTF_8))) {
             pw.println(CSV_HEADER);
             for (Movie movie : movies) {
@@ -100,6 +155,7 @@ public class MovieCSVDAO implements MovieDAO {
         } catch (IOException e) {
             System.err.println("Error writing to CSV file: " + e.getMessage());
         }
+        commitFileEvent(event, "save", new File(currentFilePath), movies.size() + 1);
     }
 
     @Override
@@ -108,26 +164,59 @@ public class MovieCSVDAO implements MovieDAO {
             movie.setId(idGenerator.getAndIncrement());
         }
         movies.add(movie);
+        indexMovie(movie);
+        saveToCSV();
+        changes.movieAdded(movie);
+    }
+
+    // Файл переписывается один раз на всю пачку, а не после каждого фильма
+    @Override
+    public void addMovies(List<Movie> newMovies) {
+        for (Movie movie : newMovies) {
+            if (movie.getId() == 0) {
+                movie.setId(idGenerator.getAndIncrement());
+            }
+            movies.add(movie);
+            indexMovie(movie);
+        }
         saveToCSV();
+        changes.moviesAdded(newMovies);
     }
 
     @Override
-    public void updateMovie(Movie movie) {
+    public boolean updateMovie(Movie movie) {
+        Movie existing = moviesById.get(movie.getId());
+        if (existing == null) {
+            return false;
+        }
         for (int i = 0; i < movies.size(); i++) {
-            if (movies.get(i).getId() == movie.getId()) {
+            if (movies.get(i) == existing) {
                 movies.set(i, movie);
                 break;
             }
         }
+        indexMovie(movie);
         saveToCSV();
+        changes.movieUpdated(movie);
+        return true;
     }
 
     @Override
     public void deleteMovie(int id) {
-        movies.removeIf(m -> m.getId() == id);
-        schedules.remove(id);
+        Movie existing = moviesById.get(id);
+        if (existing != null) {
+            movies.remove(existing);
+            unindexMovie(id);
+        }
+        MovieSchedule schedule = schedules.remove(id);
+        if (schedule != null) {
+            deadlineIndex.remove(schedule);
+        }
         scheduleHistory.remove(id);
         saveToCSV();
+        if (existing != null) {
+            changes.movieDeleted(id);
+        }
     }
 
     @Override
@@ -135,25 +224,46 @@ public class MovieCSVDAO implements MovieDAO {
         return new ArrayList<>(movies);
     }
 
+    private MovieColumns columns() {
+        if (columns == null) {
+            columns = new MovieColumns(movies);
+        }
+        return columns;
+    }
+
     @Override
     public List<Movie> smartSearch(Genre genre, double minRating, int minYear) {
-        return movies.stream()
-                .filter(movie -> movie.getGenre().equals(genre) &&
-                        movie.getImdbRating() >= minRating &&
-                        movie.getYear() >= minYear)
-                .collect(Collectors.toList());
+        if (genre == null) {
+            return new ArrayList<>();
+        }
+        return columns().filter(genre.getId(), minRating, minYear);
     }
 
     @Override
-    public double getDirectorViewPercentage(Director director) {
-        int directorViews = movies.stream()
-                .filter(m -> m.getDirector().equals(director))
-                .mapToInt(Movie::getViews)
-                .sum();
+    public List<Movie> searchByTitle(String query, int limit) {
+        return titleIndex.search(query, limit);
+    }
 
-        int totalViews = movies.stream()
-                .mapToInt(Movie::getViews)
-                .sum();
+    @Override
+    public List<Movie> find(MovieQuery query) {
+        return queryPlanner.execute(query);
+    }
+
+    @Override
+    public Map<Integer, List<Movie>> topK(Facet groupBy, SortField metric, int k) {
+        return TopK.perGroup(movies, groupBy, metric.comparator(true), k);
+    }
+
+    @Override
+    public FacetResult facetedSearch(FacetFilter filter) {
+        return facetIndex.search(filter);
+    }
+
+    @Override
+    public double getDirectorViewPercentage(Director director) {
+        MovieColumns columns = columns();
+        long directorViews = director != null ? columns.sumViews(director.getId()) : 0;
+        long totalViews = columns.sumViews();
 
         return totalViews == 0 ? 0 : (double) directorViews / totalViews * 100;
     }
@@ -175,7 +285,13 @@ public class MovieCSVDAO implements MovieDAO {
     // Schedule management methods
     @Override
     public void setMovieSchedule(int movieId, LocalDate plannedDate) {
-        schedules.put(movieId, new MovieSchedule(movieId, plannedDate));
+        MovieSchedule schedule = new MovieSchedule(movieId, plannedDate);
+        MovieSchedule previous = schedules.put(movieId, schedule);
+        if (previous != null) {
+            deadlineIndex.remove(previous);
+        }
+        deadlineIndex.add(schedule);
+        changes.scheduleSet(movieId, plannedDate);
     }
 
     @Override
@@ -183,10 +299,14 @@ public class MovieCSVDAO implements MovieDAO {
         MovieSchedule schedule = schedules.get(movieId);
         if (schedule != null) {
             LocalDate oldDate = schedule.getPlannedDate();
+            // Ключ индекса меняется, поэтому запись переставляется
+            deadlineIndex.remove(schedule);
             schedule.setPlannedDate(newDate, reason);
+            deadlineIndex.add(schedule);
 
             scheduleHistory.computeIfAbsent(movieId, k -> new ArrayList<>())
                     .add(new ScheduleChange(oldDate, newDate, reason));
+            changes.scheduleRescheduled(movieId, newDate);
         }
     }
 
@@ -198,27 +318,43 @@ public class MovieCSVDAO implements MovieDAO {
     @Override
     public List<Movie> getMoviesWithUpcomingDeadlines(int daysBefore) {
         LocalDate now = LocalDate.now();
-        return schedules.entrySet().stream()
-                .filter(entry -> {
-                    MovieSchedule schedule = entry.getValue();
-                    LocalDate plannedDate = schedule.getPlannedDate();
-                    return !schedule.isReminderSent() &&
-                            plannedDate.isAfter(now) &&
-                            plannedDate.isBefore(now.plusDays(daysBefore + 1));
-                })
-                .map(entry -> movies.stream()
-                        .filter(m -> m.getId() == entry.getKey())
-                        .findFirst()
-                        .orElse(null))
+        return deadlineRange(now.plusDays(1), now.plusDays(daysBefore)).stream()
+                .filter(schedule -> !schedule.isReminderSent())
+                .map(schedule -> moviesById.get(schedule.getMovieId()))
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<MovieSchedule> getSchedulesBetween(LocalDate from, LocalDate to) {
+        return new ArrayList<>(deadlineRange(from, to));
+    }
+
+    private NavigableSet<MovieSchedule> deadlineRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return Collections.emptyNavigableSet();
+        }
+        return deadlineIndex.subSet(
+                new MovieSchedule(Integer.MIN_VALUE, from), true,
+                new MovieSchedule(Integer.MAX_VALUE, to), true);
+    }
+
     @Override
     public void markMovieAsWatched(int movieId) {
         MovieSchedule schedule = schedules.get(movieId);
         if (schedule != null) {
             schedule.markAsCompleted();
+            changes.scheduleCompleted(movieId, schedule.getCompletionDate());
+        }
+    }
+
+    @Override
+    public void markRemindersSent(int[] movieIds) {
+        for (int movieId : movieIds) {
+            MovieSchedule schedule = schedules.get(movieId);
+            if (schedule != null) {
+                schedule.setReminderSent(true);
+            }
         }
     }
 
@@ -227,13 +363,36 @@ public class MovieCSVDAO implements MovieDAO {
         return scheduleHistory.getOrDefault(movieId, Collections.emptyList());
     }
 
+    @Override
+    public void addSchedules(List<MovieSchedule> newSchedules) {
+        for (MovieSchedule schedule : newSchedules) {
+            MovieSchedule previous = schedules.put(schedule.getMovieId(), schedule);
+            if (previous != null) {
+                deadlineIndex.remove(previous);
+            }
+            deadlineIndex.add(schedule);
+            if (!schedule.getChangeHistory().isEmpty()) {
+                scheduleHistory.computeIfAbsent(schedule.getMovieId(), k -> new ArrayList<>())
+                        .addAll(schedule.getChangeHistory());
+            }
+        }
+        changes.schedulesAdded(newSchedules);
+    }
+
     @Override
     public void importFromCSV(String filePath) {
         this.currentFilePath = filePath;
         movies.clear();
+        moviesById.clear();
+        titleIndex.clear();
+        facetIndex.clear();
+        queryPlanner.invalidate();
+        columns = null;
         schedules.clear();
+        deadlineIndex.clear();
         scheduleHistory.clear();
         loadFromCSV();
+        changes.libraryReloaded();
     }
 
     @Override
@@ -246,4 +405,30 @@ public class MovieCSVDAO implements MovieDAO {
     public String getCurrentFilePath() {
         return currentFilePath;
     }
+
+    @Override
+    public GenreDAO getGenreDAO() {
+        return genreDAO;
+    }
+
+    @Override
+    public DirectorDAO getDirectorDAO() {
+        return directorDAO;
+    }
+
+    @Override
+    public void addChangeListener(MovieChangeListener listener) {
+        changes.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(MovieChangeListener listener) {
+        changes.removeListener(listener);
+    }
+
+    // Файл перезаписывается при каждом изменении и не держится открытым, остаются только подписчики
+    @Override
+    public void close() {
+        changes.close();
+    }
 }
\ No newline at end of file
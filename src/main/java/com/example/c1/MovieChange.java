@@ -0,0 +1,51 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+
+// Изменение в источнике, о котором MovieDAO сообщает подписчикам после фиксации.
+// Для фильмов передаётся копия на момент изменения, для сроков - новая дата
+public class MovieChange {
+    public enum Type {
+        MOVIE_ADDED,
+        MOVIE_UPDATED,
+        MOVIE_DELETED,
+        SCHEDULE_SET,
+        SCHEDULE_RESCHEDULED,
+        SCHEDULE_COMPLETED,
+        // Источник перечитан целиком (импорт CSV): подписчикам нужно сбросить всё, что они держат
+        LIBRARY_RELOADED
+    }
+
+    private final Type type;
+    private final int movieId;
+    private final Movie movie;
+    private final LocalDate date;
+
+    MovieChange(Type type, int movieId, Movie movie, LocalDate date) {
+        this.type = type;
+        this.movieId = movieId;
+        this.movie = movie;
+        this.date = date;
+    }
+
+    public Type getType() { return type; }
+    public int getMovieId() { return movieId; }
+    // Только для MOVIE_ADDED и MOVIE_UPDATED
+    public Movie getMovie() { return movie; }
+    // Только для изменений сроков: новая плановая дата или дата просмотра
+    public LocalDate getDate() { return date; }
+
+    public boolean isScheduleChange() {
+        return type == Type.SCHEDULE_SET || type == Type.SCHEDULE_RESCHEDULED || type == Type.SCHEDULE_COMPLETED;
+    }
+
+    static Movie copyOf(Movie movie) {
+        return new Movie(movie.getId(), movie.getTitle(), movie.getOriginalTitle(), movie.getYear(),
+                movie.getImdbRating(), movie.getViews(), movie.getDirector(), movie.getGenre());
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + movieId + (date != null ? ", " + date : "") + ")";
+    }
+}
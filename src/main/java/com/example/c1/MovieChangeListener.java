@@ -0,0 +1,10 @@
+package com.example.c1;
+
+import java.util.List;
+
+// Подписчик на изменения MovieDAO. Вызывается в фоновом потоке уведомлений пачкой уже объединённых
+// изменений в порядке их появления; обновлять интерфейс JavaFX нужно через Platform.runLater
+@FunctionalInterface
+public interface MovieChangeListener {
+    void onChanges(List<MovieChange> changes);
+}
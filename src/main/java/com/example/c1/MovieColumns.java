@@ -0,0 +1,72 @@
+package com.example.c1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MovieColumns {
+    private final Movie[] movies;
+    private final int[] genreIds;
+    private final int[] directorIds;
+    private final int[] years;
+    private final int[] views;
+    private final double[] ratings;
+
+    public MovieColumns(List<Movie> source) {
+        int size = source.size();
+        movies = source.toArray(new Movie[0]);
+        genreIds = new int[size];
+        directorIds = new int[size];
+        years = new int[size];
+        views = new int[size];
+        ratings = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            Movie movie = movies[i];
+            genreIds[i] = movie.getGenre() != null ? movie.getGenre().getId() : 0;
+            directorIds[i] = movie.getDirector() != null ? movie.getDirector().getId() : 0;
+            years[i] = movie.getYear();
+            views[i] = movie.getViews();
+            ratings[i] = movie.getImdbRating();
+        }
+    }
+
+    public int size() {
+        return movies.length;
+    }
+
+    // Маска отбора считается без ветвлений, чтобы JIT мог векторизовать цикл
+    public List<Movie> filter(int genreId, double minRating, int minYear) {
+        int size = movies.length;
+        boolean[] mask = new boolean[size];
+        int matches = 0;
+        for (int i = 0; i < size; i++) {
+            boolean match = (genreIds[i] == genreId) & (ratings[i] >= minRating) & (years[i] >= minYear);
+            mask[i] = match;
+            matches += match ? 1 : 0;
+        }
+
+        List<Movie> result = new ArrayList<>(matches);
+        for (int i = 0; i < size; i++) {
+            if (mask[i]) {
+                result.add(movies[i]);
+            }
+        }
+        return result;
+    }
+
+    public long sumViews() {
+        long total = 0;
+        for (int v : views) {
+            total += v;
+        }
+        return total;
+    }
+
+    public long sumViews(int directorId) {
+        long total = 0;
+        for (int i = 0; i < views.length; i++) {
+            total += directorIds[i] == directorId ? views[i] : 0;
+        }
+        return total;
+    }
+}
@@ -2,16 +2,50 @@ package com.example.c1;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
-public interface MovieDAO {
+public interface MovieDAO extends AutoCloseable {
     // Основные методы работы с фильмами
     void addMovie(Movie movie);
-    void updateMovie(Movie movie);
+    // false - фильма с таким id нет, ничего не изменено
+    boolean updateMovie(Movie movie);
     void deleteMovie(int id);
     List<Movie> getAllMovies();
     List<Movie> smartSearch(Genre genre, double minRating, int minYear);
+    List<Movie> searchByTitle(String query, int limit);
+    List<Movie> find(MovieQuery query);
+
+    // Пакетная загрузка: реализации с БД пишут всё одной транзакцией, id проставляются в переданные объекты
+    default void addMovies(List<Movie> movies) {
+        movies.forEach(this::addMovie);
+    }
+
+    // Массовая загрузка через addMovies/addSchedules внутри load: источник может отложить
+    // поддержку полнотекстового индекса и перестроить его один раз в конце
+    default void bulkLoad(Runnable load) {
+        load.run();
+    }
+
+    // Справочники, на которые ссылаются фильмы этого источника
+    GenreDAO getGenreDAO();
+    DirectorDAO getDirectorDAO();
+
+    // k лучших фильмов по метрике (по убыванию) в каждой группе: жанр, режиссёр, десятилетие
+    Map<Integer, List<Movie>> topK(Facet groupBy, SortField metric, int k);
+
+    // Отбор по фасетам и счётчики по каждому значению фасета за один проход
+    default FacetResult facetedSearch(FacetFilter filter) {
+        return new FacetIndex(getAllMovies()).search(filter);
+    }
+
     double getDirectorViewPercentage(Director director);
     List<Movie> findDuplicatesByTmdb();
+
+    // Кластеры точных и нечётких дубликатов (регистр, пунктуация, транслитерация)
+    default List<List<Movie>> findDuplicateClusters() {
+        return new DuplicateDetector().findClusters(getAllMovies());
+    }
+
     void importFromCSV(String filePath);
     void exportToCSV(String filePath);
     String getCurrentFilePath();
@@ -21,6 +55,35 @@ public interface MovieDAO {
     void updateMovieSchedule(int movieId, LocalDate newDate, String reason);
     MovieSchedule getMovieSchedule(int movieId);
     List<Movie> getMoviesWithUpcomingDeadlines(int daysBefore);
+    List<MovieSchedule> getSchedulesBetween(LocalDate from, LocalDate to);
     void markMovieAsWatched(int movieId);
+    void markRemindersSent(int[] movieIds);
     List<ScheduleChange> getScheduleHistory(int movieId);
+
+    // Пакетная загрузка сроков вместе с историей переносов из MovieSchedule.getChangeHistory()
+    default void addSchedules(List<MovieSchedule> schedules) {
+        for (MovieSchedule schedule : schedules) {
+            int movieId = schedule.getMovieId();
+            List<ScheduleChange> history = schedule.getChangeHistory();
+            setMovieSchedule(movieId, history.isEmpty() ? schedule.getPlannedDate() : history.get(0).getOldDate());
+            for (ScheduleChange change : history) {
+                updateMovieSchedule(movieId, change.getNewDate(), change.getReason());
+            }
+            if (schedule.getCompletionDate() != null) {
+                markMovieAsWatched(movieId);
+            }
+            if (schedule.isReminderSent()) {
+                markRemindersSent(new int[]{movieId});
+            }
+        }
+    }
+
+    // Подписка на изменения, сделанные через этот DAO. Подписчик получает их после фиксации,
+    // асинхронно и пачками, где несколько изменений одного фильма сведены в одно (см. ChangeNotifier)
+    void addChangeListener(MovieChangeListener listener);
+    void removeChangeListener(MovieChangeListener listener);
+
+    // Освобождает соединение с источником; повторный вызов ничего не делает
+    @Override
+    void close();
 }
\ No newline at end of file
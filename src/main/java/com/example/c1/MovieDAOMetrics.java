@@ -0,0 +1,109 @@
+package com.example.c1;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MovieDAOMetrics implements MovieDAOMetricsMXBean {
+    private static final String DOMAIN = "com.example.c1";
+
+    private final String backend;
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    public MovieDAOMetrics(String backend) {
+        this.backend = backend;
+    }
+
+    public MethodStats method(String name) {
+        return methods.computeIfAbsent(name, k -> new MethodStats());
+    }
+
+    // Регистрация в platform MBeanServer: com.example.c1:type=MovieDAO,backend=<имя>
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(DOMAIN + ":type=MovieDAO,backend=" + backend));
+        } catch (InstanceAlreadyExistsException e) {
+            // Метрики этого источника уже опубликованы
+        } catch (JMException e) {
+            System.err.println("Error registering DAO metrics MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getBackend() {
+        return backend;
+    }
+
+    @Override
+    public long getTotalCalls() {
+        return methods.values().stream().mapToLong(stats -> stats.histogram.getCount()).sum();
+    }
+
+    @Override
+    public long getTotalErrors() {
+        return methods.values().stream().mapToLong(stats -> stats.errors.sum()).sum();
+    }
+
+    @Override
+    public double getCallsPerSecond() {
+        return getTotalCalls() / elapsedSeconds();
+    }
+
+    @Override
+    public Map<String, MethodMetrics> getMethods() {
+        double seconds = elapsedSeconds();
+        Map<String, MethodMetrics> snapshot = new TreeMap<>();
+        methods.forEach((name, stats) -> snapshot.put(name, stats.snapshot(name, seconds)));
+        return snapshot;
+    }
+
+    @Override
+    public void reset() {
+        methods.values().forEach(MethodStats::reset);
+        startNanos = System.nanoTime();
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+    }
+
+    public static class MethodStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        public void record(long nanos, int rowCount) {
+            histogram.record(nanos);
+            rows.add(rowCount);
+        }
+
+        public void recordError(long nanos) {
+            histogram.record(nanos);
+            errors.increment();
+        }
+
+        MethodMetrics snapshot(String name, double seconds) {
+            long calls = histogram.getCount();
+            return new MethodMetrics(name, calls, errors.sum(), rows.sum(), calls / seconds,
+                    histogram.getMeanNanos() / 1000.0,
+                    histogram.getValueAtPercentile(0.5) / 1000.0,
+                    histogram.getValueAtPercentile(0.99) / 1000.0,
+                    histogram.getValueAtPercentile(0.999) / 1000.0,
+                    histogram.getMaxNanos() / 1000.0);
+        }
+
+        void reset() {
+            histogram.reset();
+            errors.reset();
+            rows.reset();
+        }
+    }
+}
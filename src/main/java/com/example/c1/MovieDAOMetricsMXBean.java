@@ -0,0 +1,13 @@
+package com.example.c1;
+
+import java.util.Map;
+
+// Метрики вызовов MovieDAO одного источника данных, видны в JConsole/JMC
+public interface MovieDAOMetricsMXBean {
+    String getBackend();
+    long getTotalCalls();
+    long getTotalErrors();
+    double getCallsPerSecond();
+    Map<String, MethodMetrics> getMethods();
+    void reset();
+}
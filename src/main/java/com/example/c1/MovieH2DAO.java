@@ -1,28 +1,48 @@
 package com.example.c1;
 
-import javax.sql.rowset.CachedRowSet;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 public class MovieH2DAO implements MovieDAO {
+    private static final String INSERT_MOVIE_SQL = "INSERT INTO movies (title, original_title, release_year, " +
+            "imdb_rating, views, director_id, genre_id, title_sort_key, original_title_sort_key) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 10_000;
+    // Имя, под которым org.h2.fulltext.FullText создаёт триггер синхронизации для таблицы MOVIES
+    private static final String FULL_TEXT_TRIGGER = "FT_MOVIES";
+
     private final H2DBConnect dbConnect;
     private final GenreDAO genreDAO;
     private final DirectorDAO directorDAO;
+    // Подписчики на изменения этой базы, уведомляются после фиксации записи
+    private final ChangeNotifier changes = new ChangeNotifier();
+
+    public MovieH2DAO() {
+        this(H2DBConnect.FILE_JDBC_URL);
+    }
 
-    public MovieH2DAO(GenreDAO genreDAO, DirectorDAO directorDAO) {
-        this.genreDAO = genreDAO;
-        this.directorDAO = directorDAO;
+    // Произвольная база: отдельный файл или jdbc:h2:mem:... для тестов и бенчмарков
+    public MovieH2DAO(String jdbcUrl) {
         this.dbConnect = new H2DBConnect();
         try {
-            dbConnect.connect(false);
+            dbConnect.connect(jdbcUrl);
             initializeScheduleTables();
+            initializeFullTextIndex();
+            initializeSortKeys();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to H2 database", e);
         }
+        // Справочники этой базы: строки фильмов ссылаются на общие экземпляры жанров и режиссёров
+        this.genreDAO = new GenreDBImpl(dbConnect.getConnection());
+        this.directorDAO = new DirectorDBImpl(dbConnect.getConnection());
     }
 
     private void initializeScheduleTables() throws SQLException {
@@ -41,20 +61,112 @@ public class MovieH2DAO implements MovieDAO {
                 "reason VARCHAR(255) NOT NULL, " +
                 "change_date DATE NOT NULL, " +
                 "FOREIGN KEY (movie_id) REFERENCES movies(id))");
+
+        dbConnect.executeUpdate("CREATE INDEX IF NOT EXISTS idx_movie_schedules_planned_date " +
+                "ON movie_schedules(planned_date)");
+    }
+
+    // Встроенный полнотекстовый индекс H2 по названиям; триггеры FT сами следят за изменениями movies
+    private void initializeFullTextIndex() throws SQLException {
+        dbConnect.executeUpdate("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+        dbConnect.executeUpdate("CALL FT_INIT()");
+        try (ResultSet rs = dbConnect.executeQuery(
+                "SELECT COUNT(*) FROM FT.INDEXES WHERE SCHEMA = 'PUBLIC' AND \"TABLE\" = 'MOVIES'")) {
+            if (rs.next() && rs.getInt(1) == 0) {
+                dbConnect.executeUpdate("CALL FT_CREATE_INDEX('PUBLIC', 'MOVIES', 'TITLE,ORIGINAL_TITLE')");
+            }
+        }
+        // Триггера нет, если массовая загрузка прервалась: FT_REINDEX создаёт его и догоняет таблицу
+        try (ResultSet rs = dbConnect.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TRIGGERS " +
+                "WHERE TRIGGER_SCHEMA = 'PUBLIC' AND TRIGGER_NAME = '" + FULL_TEXT_TRIGGER + "'")) {
+            if (rs.next() && rs.getInt(1) == 0) {
+                dbConnect.executeUpdate("CALL FT_REINDEX()");
+            }
+        }
+    }
+
+    // Триггер FullText индексирует каждую вставленную строку отдельными запросами к FT.WORDS и FT.MAP.
+    // На время загрузки он снимается; FT_REINDEX в конце создаёт его заново и индексирует таблицу за один проход
+    @Override
+    public void bulkLoad(Runnable load) {
+        try {
+            dbConnect.executeUpdate("DROP TRIGGER IF EXISTS PUBLIC." + FULL_TEXT_TRIGGER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error preparing bulk load", e);
+        }
+        try {
+            load.run();
+        } finally {
+            try {
+                dbConnect.executeUpdate("CALL FT_REINDEX()");
+            } catch (SQLException e) {
+                throw new RuntimeException("Error rebuilding full-text index", e);
+            }
+        }
+    }
+
+    // Колонки ключей сортировки названий: добавляются в старые базы и заполняются для строк без ключа
+    private void initializeSortKeys() throws SQLException {
+        try (ResultSet rs = dbConnect.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = 'MOVIES' AND COLUMN_NAME = 'TITLE_SORT_KEY'")) {
+            if (rs.next() && rs.getInt(1) == 0) {
+                dbConnect.executeUpdate("ALTER TABLE movies ADD COLUMN title_sort_key VARBINARY");
+                dbConnect.executeUpdate("ALTER TABLE movies ADD COLUMN original_title_sort_key VARBINARY");
+                // Триггеры FullText запомнили прежний набор колонок и без переиндексации падают на UPDATE
+                dbConnect.executeUpdate("CALL FT_REINDEX()");
+            }
+        }
+        dbConnect.executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_title_sort_key ON movies(title_sort_key)");
+        dbConnect.executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_original_title_sort_key " +
+                "ON movies(original_title_sort_key)");
+        backfillSortKeys();
+    }
+
+    // OR по двум колонкам H2 выполняет полным просмотром таблицы при каждом запуске;
+    // UNION ALL идёт по индексам ключей и при заполненных ключах почти ничего не стоит
+    private void backfillSortKeys() throws SQLException {
+        String selectSql = "SELECT id, title, original_title FROM movies WHERE title_sort_key IS NULL " +
+                "UNION ALL SELECT id, title, original_title FROM movies " +
+                "WHERE original_title_sort_key IS NULL AND title_sort_key IS NOT NULL";
+        String updateSql = "UPDATE movies SET title_sort_key = ?, original_title_sort_key = ? WHERE id = ?";
+        Connection connection = dbConnect.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (ResultSet rs = dbConnect.executeQuery(selectSql);
+             PreparedStatement pstmt = dbConnect.prepareStatement(updateSql)) {
+            while (rs.next()) {
+                pstmt.setBytes(1, TitleCollation.sortKey(rs.getString("title")));
+                pstmt.setBytes(2, TitleCollation.sortKey(rs.getString("original_title")));
+                pstmt.setInt(3, rs.getInt("id"));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Параметры 1-9 общие для INSERT и UPDATE
+    private static void bindMovie(PreparedStatement pstmt, Movie movie) throws SQLException {
+        pstmt.setString(1, movie.getTitle());
+        pstmt.setString(2, movie.getOriginalTitle());
+        pstmt.setInt(3, movie.getYear());
+        pstmt.setDouble(4, movie.getImdbRating());
+        pstmt.setInt(5, movie.getViews());
+        pstmt.setInt(6, movie.getDirector().getId());
+        pstmt.setInt(7, movie.getGenre().getId());
+        pstmt.setBytes(8, movie.getTitleSortKey());
+        pstmt.setBytes(9, movie.getOriginalTitleSortKey());
     }
 
     @Override
     public void addMovie(Movie movie) {
-        String sql = "INSERT INTO movies (title, original_title, release_year, imdb_rating, views, director_id, genre_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, movie.getTitle());
-            pstmt.setString(2, movie.getOriginalTitle());
-            pstmt.setInt(3, movie.getYear());
-            pstmt.setDouble(4, movie.getImdbRating());
-            pstmt.setInt(5, movie.getViews());
-            pstmt.setInt(6, movie.getDirector().getId());
-            pstmt.setInt(7, movie.getGenre().getId());
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(INSERT_MOVIE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindMovie(pstmt, movie);
             pstmt.executeUpdate();
 
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
@@ -65,37 +177,77 @@ public class MovieH2DAO implements MovieDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Error adding movie", e);
         }
+        changes.movieAdded(movie);
     }
 
     @Override
-    public void updateMovie(Movie movie) {
+    public void addMovies(List<Movie> movies) {
+        Connection connection = dbConnect.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = dbConnect.prepareStatement(INSERT_MOVIE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < movies.size(); from += BATCH_SIZE) {
+                    List<Movie> batch = movies.subList(from, Math.min(movies.size(), from + BATCH_SIZE));
+                    for (Movie movie : batch) {
+                        bindMovie(pstmt, movie);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        for (Movie movie : batch) {
+                            if (rs.next()) {
+                                movie.setId(rs.getInt(1));
+                            }
+                        }
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adding movies", e);
+        }
+        changes.moviesAdded(movies);
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
         String sql = "UPDATE movies SET title = ?, original_title = ?, release_year = ?, " +
-                "imdb_rating = ?, views = ?, director_id = ?, genre_id = ? WHERE id = ?";
+                "imdb_rating = ?, views = ?, director_id = ?, genre_id = ?, " +
+                "title_sort_key = ?, original_title_sort_key = ? WHERE id = ?";
+        int updated;
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
-            pstmt.setString(1, movie.getTitle());
-            pstmt.setString(2, movie.getOriginalTitle());
-            pstmt.setInt(3, movie.getYear());
-            pstmt.setDouble(4, movie.getImdbRating());
-            pstmt.setInt(5, movie.getViews());
-            pstmt.setInt(6, movie.getDirector().getId());
-            pstmt.setInt(7, movie.getGenre().getId());
-            pstmt.setInt(8, movie.getId());
-            pstmt.executeUpdate();
+            bindMovie(pstmt, movie);
+            pstmt.setInt(10, movie.getId());
+            updated = pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating movie", e);
         }
+        if (updated > 0) {
+            changes.movieUpdated(movie);
+        }
+        return updated > 0;
     }
 
     @Override
     public void deleteMovie(int id) {
         String sql = "DELETE FROM movies WHERE id = ?";
+        int deleted;
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
             pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+            deleted = pstmt.executeUpdate();
             deleteScheduleData(id);
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting movie", e);
         }
+        if (deleted > 0) {
+            changes.movieDeleted(id);
+        }
     }
 
     private void deleteScheduleData(int movieId) throws SQLException {
@@ -112,30 +264,20 @@ public class MovieH2DAO implements MovieDAO {
         }
     }
 
+    // Единая точка чтения фильмов: номера колонок определяются один раз на запрос
+    private List<Movie> readMovies(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return new MovieRowMapper(rs, genreDAO, directorDAO).mapAll(rs);
+        }
+    }
+
     @Override
     public List<Movie> getAllMovies() {
         List<Movie> movies = new ArrayList<>();
         String sql = "SELECT id, title, original_title, release_year, imdb_rating, views, director_id, genre_id FROM movies";
 
-        try (CachedRowSet crs = dbConnect.executeQuery(sql)) {
-            while (crs.next()) {
-                int directorId = crs.getInt("director_id");
-                int genreId = crs.getInt("genre_id");
-
-                Director director = directorDAO.getDirectorById(directorId);
-                Genre genre = genreDAO.getGenreById(genreId);
-
-                movies.add(new Movie(
-                        crs.getInt("id"),
-                        crs.getString("title"),
-                        crs.getString("original_title"),
-                        crs.getInt("release_year"),
-                        crs.getDouble("imdb_rating"),
-                        crs.getInt("views"),
-                        director,
-                        genre
-                ));
-            }
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            movies.addAll(readMovies(pstmt));
         } catch (SQLException e) {
             throw new RuntimeException("Error getting movies", e);
         }
@@ -152,6 +294,7 @@ public class MovieH2DAO implements MovieDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Error setting movie schedule", e);
         }
+        changes.scheduleSet(movieId, plannedDate);
     }
 
     @Override
@@ -187,6 +330,7 @@ public class MovieH2DAO implements MovieDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Error updating movie schedule", e);
         }
+        changes.scheduleRescheduled(movieId, newDate);
     }
 
     private Optional<LocalDate> getCurrentPlannedDate(int movieId) throws SQLException {
@@ -209,12 +353,7 @@ public class MovieH2DAO implements MovieDAO {
             pstmt.setInt(1, movieId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    MovieSchedule schedule = new MovieSchedule(movieId, rs.getDate("planned_date").toLocalDate());
-                    if (rs.getDate("completion_date") != null) {
-                        schedule.markAsCompleted(rs.getDate("completion_date").toLocalDate());
-                    }
-                    schedule.setReminderSent(rs.getBoolean("reminder_sent"));
-                    return schedule;
+                    return readSchedule(rs, movieId);
                 }
             }
         } catch (SQLException e) {
@@ -239,58 +378,92 @@ public class MovieH2DAO implements MovieDAO {
             pstmt.setDate(1, Date.valueOf(now));
             pstmt.setDate(2, Date.valueOf(deadline));
 
+            movies.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error getting movies with upcoming deadlines", e);
+        }
+        return movies;
+    }
+
+    private MovieSchedule readSchedule(ResultSet rs, int movieId) throws SQLException {
+        MovieSchedule schedule = new MovieSchedule(movieId, rs.getDate("planned_date").toLocalDate());
+        if (rs.getDate("completion_date") != null) {
+            schedule.markAsCompleted(rs.getDate("completion_date").toLocalDate());
+        }
+        schedule.setReminderSent(rs.getBoolean("reminder_sent"));
+        return schedule;
+    }
+
+    @Override
+    public List<MovieSchedule> getSchedulesBetween(LocalDate from, LocalDate to) {
+        String sql = "SELECT movie_id, planned_date, completion_date, reminder_sent FROM movie_schedules " +
+                "WHERE planned_date BETWEEN ? AND ? ORDER BY planned_date, movie_id";
+        List<MovieSchedule> schedules = new ArrayList<>();
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    int directorId = rs.getInt("director_id");
-                    int genreId = rs.getInt("genre_id");
-
-                    Director director = directorDAO.getDirectorById(directorId);
-                    Genre genre = genreDAO.getGenreById(genreId);
-
-                    movies.add(new Movie(
-                            rs.getInt("id"),
-                            rs.getString("title"),
-                            rs.getString("original_title"),
-                            rs.getInt("release_year"),
-                            rs.getDouble("imdb_rating"),
-                            rs.getInt("views"),
-                            director,
-                            genre
-                    ));
-                }
-            }
-
-            if (!movies.isEmpty()) {
-                String updateSql = "UPDATE movie_schedules SET reminder_sent = TRUE " +
-                        "WHERE planned_date BETWEEN ? AND ?";
-                try (PreparedStatement updatePstmt = dbConnect.prepareStatement(updateSql)) {
-                    updatePstmt.setDate(1, Date.valueOf(now));
-                    updatePstmt.setDate(2, Date.valueOf(deadline));
-                    updatePstmt.executeUpdate();
+                    schedules.add(readSchedule(rs, rs.getInt("movie_id")));
                 }
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Error getting movies with upcoming deadlines", e);
+            throw new RuntimeException("Error getting schedules in range", e);
         }
-        return movies;
+        return schedules;
     }
 
     @Override
     public void markMovieAsWatched(int movieId) {
         String sql = "UPDATE movie_schedules SET completion_date = ? WHERE movie_id = ?";
+        LocalDate completionDate = LocalDate.now();
+        int updated;
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
-            pstmt.setDate(1, Date.valueOf(LocalDate.now()));
+            pstmt.setDate(1, Date.valueOf(completionDate));
             pstmt.setInt(2, movieId);
-            pstmt.executeUpdate();
+            updated = pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Error marking movie as watched", e);
         }
+        // Без срока отмечать нечего; событие только при реальном изменении, как в MovieCSVDAO
+        if (updated > 0) {
+            changes.scheduleCompleted(movieId, completionDate);
+        }
+    }
+
+    @Override
+    public void markRemindersSent(int[] movieIds) {
+        if (movieIds.length == 0) {
+            return;
+        }
+        String sql = "UPDATE movie_schedules SET reminder_sent = TRUE WHERE movie_id = ?";
+        Connection connection = dbConnect.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+                for (int movieId : movieIds) {
+                    pstmt.setInt(1, movieId);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error marking reminders as sent", e);
+        }
     }
 
     @Override
     public List<ScheduleChange> getScheduleHistory(int movieId) {
         String sql = "SELECT old_date, new_date, reason, change_date FROM schedule_changes " +
-                "WHERE movie_id = ? ORDER BY change_date DESC";
+                "WHERE movie_id = ? ORDER BY change_date DESC, id DESC";
         List<ScheduleChange> history = new ArrayList<>();
 
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
@@ -311,10 +484,51 @@ public class MovieH2DAO implements MovieDAO {
         return history;
     }
 
+    @Override
+    public void addSchedules(List<MovieSchedule> schedules) {
+        String scheduleSql = "MERGE INTO movie_schedules KEY(movie_id) VALUES (?, ?, ?, ?)";
+        String historySql = "INSERT INTO schedule_changes (movie_id, old_date, new_date, reason, change_date) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        Connection connection = dbConnect.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement schedulePstmt = dbConnect.prepareStatement(scheduleSql);
+                 PreparedStatement historyPstmt = dbConnect.prepareStatement(historySql)) {
+                for (MovieSchedule schedule : schedules) {
+                    schedulePstmt.setInt(1, schedule.getMovieId());
+                    schedulePstmt.setDate(2, Date.valueOf(schedule.getPlannedDate()));
+                    schedulePstmt.setDate(3, schedule.getCompletionDate() == null ? null : Date.valueOf(schedule.getCompletionDate()));
+                    schedulePstmt.setBoolean(4, schedule.isReminderSent());
+                    schedulePstmt.addBatch();
+                    for (ScheduleChange change : schedule.getChangeHistory()) {
+                        historyPstmt.setInt(1, schedule.getMovieId());
+                        historyPstmt.setDate(2, Date.valueOf(change.getOldDate()));
+                        historyPstmt.setDate(3, Date.valueOf(change.getNewDate()));
+                        historyPstmt.setString(4, change.getReason());
+                        historyPstmt.setDate(5, Date.valueOf(change.getChangeDate()));
+                        historyPstmt.addBatch();
+                    }
+                }
+                schedulePstmt.executeBatch();
+                historyPstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adding schedules", e);
+        }
+        changes.schedulesAdded(schedules);
+    }
+
     @Override
     public List<Movie> smartSearch(Genre genre, double minRating, int minYear) {
         List<Movie> result = new ArrayList<>();
-        String sql = "SELECT id, title, original_title, release_year, imdb_rating, views, director_id " +
+        String sql = "SELECT id, title, original_title, release_year, imdb_rating, views, director_id, genre_id " +
                 "FROM movies WHERE genre_id = ? AND imdb_rating >= ? AND release_year >= ?";
 
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
@@ -322,50 +536,151 @@ public class MovieH2DAO implements MovieDAO {
             pstmt.setDouble(2, minRating);
             pstmt.setInt(3, minYear);
 
+            result.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error in smart search", e);
+        }
+        return result;
+    }
+
+    // Поиск по мере ввода: законченные слова ищутся во встроенном FullText (он знает только целые слова),
+    // последнее, возможно недописанное, - как начало любого слова названия; LIMIT применяется после сортировки
+    @Override
+    public List<Movie> searchByTitle(String query, int limit) {
+        List<Movie> result = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        if (query != null) {
+            for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        if (words.isEmpty() || limit <= 0) {
+            return result;
+        }
+        // Слова состоят только из букв и цифр, экранировать в выражении нечего
+        String wordStart = "(^|[^\\p{L}\\p{N}])" + words.remove(words.size() - 1);
+        String sql = "SELECT m.id, m.title, m.original_title, m.release_year, m.imdb_rating, m.views, " +
+                "m.director_id, m.genre_id FROM movies m" +
+                (words.isEmpty() ? "" : " JOIN FT_SEARCH_DATA(?, 0, 0) ft ON m.id = ft.KEYS[1]") +
+                " WHERE (REGEXP_LIKE(LOWER(m.title), ?) OR REGEXP_LIKE(LOWER(m.original_title), ?))" +
+                " ORDER BY m.title_sort_key, m.id LIMIT ?";
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            int index = 1;
+            if (!words.isEmpty()) {
+                pstmt.setString(index++, String.join(" ", words));
+            }
+            pstmt.setString(index++, wordStart);
+            pstmt.setString(index++, wordStart);
+            pstmt.setInt(index, limit);
+            result.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching movies by title", e);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Movie> find(MovieQuery query) {
+        List<Movie> result = new ArrayList<>();
+        MovieQuerySql querySql = new MovieQuerySql("", "release_year");
+        String sql = "SELECT id, title, original_title, release_year, imdb_rating, views, director_id, genre_id " +
+                "FROM movies" + querySql.clauses(query);
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            querySql.bind(pstmt);
+            result.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error executing movie query", e);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Integer, List<Movie>> topK(Facet groupBy, SortField metric, int k) {
+        Map<Integer, List<Movie>> result = new TreeMap<>();
+        if (k <= 0) {
+            return result;
+        }
+        MovieQuerySql querySql = new MovieQuerySql("", "release_year");
+        String sql = querySql.topK("id, title, original_title, release_year, imdb_rating, views, director_id, genre_id",
+                "movies", groupBy, metric, k);
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            querySql.bind(pstmt);
             try (ResultSet rs = pstmt.executeQuery()) {
+                MovieRowMapper mapper = new MovieRowMapper(rs, genreDAO, directorDAO);
+                int groupColumn = rs.findColumn("group_key");
                 while (rs.next()) {
-                    int directorId = rs.getInt("director_id");
-                    Director director = directorDAO.getDirectorById(directorId);
-
-                    result.add(new Movie(
-                            rs.getInt("id"),
-                            rs.getString("title"),
-                            rs.getString("original_title"),
-                            rs.getInt("release_year"),
-                            rs.getDouble("imdb_rating"),
-                            rs.getInt("views"),
-                            director,
-                            genre
-                    ));
+                    result.computeIfAbsent(rs.getInt(groupColumn), g -> new ArrayList<>()).add(mapper.map(rs));
                 }
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Error in smart search", e);
+            throw new RuntimeException("Error getting top movies", e);
         }
         return result;
     }
 
+    // Отобранные фильмы одним запросом и по одному GROUP BY на фасет с тем же WHERE;
+    // счётчики совпадают с FacetIndex.search, вся таблица в память не читается
+    @Override
+    public FacetResult facetedSearch(FacetFilter filter) {
+        MovieQuerySql querySql = new MovieQuerySql("", "release_year");
+        String where = querySql.facetClauses(filter);
+        String sql = "SELECT id, title, original_title, release_year, imdb_rating, views, director_id, genre_id " +
+                "FROM movies" + where + " ORDER BY id";
+
+        List<Movie> movies;
+        Map<Facet, Map<Integer, Integer>> counts = new EnumMap<>(Facet.class);
+        try {
+            try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+                querySql.bind(pstmt);
+                movies = readMovies(pstmt);
+            }
+            for (Facet facet : Facet.values()) {
+                String group = querySql.groupColumn(facet);
+                String countSql = "SELECT " + group + " AS facet_value, COUNT(*) AS movie_count FROM movies" +
+                        where + " GROUP BY " + group;
+                Map<Integer, Integer> facetCounts = new TreeMap<>();
+                try (PreparedStatement pstmt = dbConnect.prepareStatement(countSql)) {
+                    querySql.bind(pstmt);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            facetCounts.put(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+                counts.put(facet, facetCounts);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error in faceted search", e);
+        }
+        return new FacetResult(movies, counts);
+    }
+
     @Override
     public double getDirectorViewPercentage(Director director) {
         try {
             String totalSql = "SELECT SUM(views) AS total FROM movies WHERE director_id = ?";
             String allSql = "SELECT SUM(views) AS all_total FROM movies";
 
-            int directorViews = 0;
-            int allViews = 0;
+            long directorViews = 0;
+            long allViews = 0;
 
             try (PreparedStatement pstmt = dbConnect.prepareStatement(totalSql)) {
                 pstmt.setInt(1, director.getId());
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
-                        directorViews = rs.getInt("total");
+                        directorViews = rs.getLong("total");
                     }
                 }
             }
 
             try (ResultSet rs = dbConnect.executeQuery(allSql)) {
                 if (rs.next()) {
-                    allViews = rs.getInt("all_total");
+                    allViews = rs.getLong("all_total");
                 }
             }
 
@@ -382,28 +697,13 @@ public class MovieH2DAO implements MovieDAO {
         String sql = "SELECT m1.id, m1.title, m1.original_title, m1.release_year, m1.imdb_rating, " +
                 "m1.views, m1.director_id, m1.genre_id " +
                 "FROM movies m1 " +
-                "INNER JOIN movies m2 ON m1.original_title = m2.original_title " +
-                "AND m1.release_year = m2.release_year AND m1.id != m2.id";
-
-        try (CachedRowSet crs = dbConnect.executeQuery(sql)) {
-            while (crs.next()) {
-                int directorId = crs.getInt("director_id");
-                int genreId = crs.getInt("genre_id");
-
-                Director director = directorDAO.getDirectorById(directorId);
-                Genre genre = genreDAO.getGenreById(genreId);
-
-                duplicates.add(new Movie(
-                        crs.getInt("id"),
-                        crs.getString("title"),
-                        crs.getString("original_title"),
-                        crs.getInt("release_year"),
-                        crs.getDouble("imdb_rating"),
-                        crs.getInt("views"),
-                        director,
-                        genre
-                ));
-            }
+                "JOIN (SELECT original_title, release_year FROM movies " +
+                "GROUP BY original_title, release_year HAVING COUNT(*) > 1) d " +
+                "ON m1.original_title = d.original_title AND m1.release_year = d.release_year " +
+                "ORDER BY m1.original_title, m1.release_year, m1.id";
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            duplicates.addAll(readMovies(pstmt));
         } catch (SQLException e) {
             throw new RuntimeException("Error finding duplicates", e);
         }
@@ -424,4 +724,30 @@ public class MovieH2DAO implements MovieDAO {
     public String getCurrentFilePath() {
         return "testdb.mv.db";
     }
+
+    @Override
+    public GenreDAO getGenreDAO() {
+        return genreDAO;
+    }
+
+    @Override
+    public DirectorDAO getDirectorDAO() {
+        return directorDAO;
+    }
+
+    @Override
+    public void addChangeListener(MovieChangeListener listener) {
+        changes.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(MovieChangeListener listener) {
+        changes.removeListener(listener);
+    }
+
+    @Override
+    public void close() {
+        changes.close();
+        dbConnect.disconnect();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.example.c1;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Составной запрос к фильмам: фильтры, сортировка и окно LIMIT/OFFSET
+public class MovieQuery {
+    private final Set<Integer> genreIds;
+    private final Set<Integer> directorIds;
+    private final Integer minYear;
+    private final Integer maxYear;
+    private final Double minRating;
+    private final Double maxRating;
+    private final SortField sortField;
+    private final boolean descending;
+    private final int limit;
+    private final int offset;
+
+    private MovieQuery(Builder builder) {
+        this.genreIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.genreIds));
+        this.directorIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.directorIds));
+        this.minYear = builder.minYear;
+        this.maxYear = builder.maxYear;
+        this.minRating = builder.minRating;
+        this.maxRating = builder.maxRating;
+        this.sortField = builder.sortField;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+        this.offset = builder.offset;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Set<Integer> getGenreIds() { return genreIds; }
+    public Set<Integer> getDirectorIds() { return directorIds; }
+    public Integer getMinYear() { return minYear; }
+    public Integer getMaxYear() { return maxYear; }
+    public Double getMinRating() { return minRating; }
+    public Double getMaxRating() { return maxRating; }
+    public SortField getSortField() { return sortField; }
+    public boolean isDescending() { return descending; }
+    public int getLimit() { return limit; }
+    public int getOffset() { return offset; }
+
+    public boolean hasFilters() {
+        return !genreIds.isEmpty() || !directorIds.isEmpty()
+                || minYear != null || maxYear != null || minRating != null || maxRating != null;
+    }
+
+    public boolean hasLimit() {
+        return limit > 0;
+    }
+
+    // Проверка одного фильма по всем фильтрам запроса
+    public boolean matches(Movie movie) {
+        if (!genreIds.isEmpty() && (movie.getGenre() == null || !genreIds.contains(movie.getGenre().getId()))) {
+            return false;
+        }
+        if (!directorIds.isEmpty() && (movie.getDirector() == null || !directorIds.contains(movie.getDirector().getId()))) {
+            return false;
+        }
+        if (minYear != null && movie.getYear() < minYear) return false;
+        if (maxYear != null && movie.getYear() > maxYear) return false;
+        if (minRating != null && movie.getImdbRating() < minRating) return false;
+        if (maxRating != null && movie.getImdbRating() > maxRating) return false;
+        return true;
+    }
+
+    public static class Builder {
+        private final Set<Integer> genreIds = new LinkedHashSet<>();
+        private final Set<Integer> directorIds = new LinkedHashSet<>();
+        private Integer minYear;
+        private Integer maxYear;
+        private Double minRating;
+        private Double maxRating;
+        private SortField sortField;
+        private boolean descending;
+        private int limit;
+        private int offset;
+
+        private Builder() {
+        }
+
+        public Builder genres(int... ids) {
+            for (int id : ids) {
+                genreIds.add(id);
+            }
+            return this;
+        }
+
+        public Builder genre(Genre genre) {
+            return genres(genre.getId());
+        }
+
+        public Builder directors(int... ids) {
+            for (int id : ids) {
+                directorIds.add(id);
+            }
+            return this;
+        }
+
+        public Builder director(Director director) {
+            return directors(director.getId());
+        }
+
+        public Builder minYear(int year) {
+            this.minYear = year;
+            return this;
+        }
+
+        public Builder maxYear(int year) {
+            this.maxYear = year;
+            return this;
+        }
+
+        public Builder yearBetween(int from, int to) {
+            return minYear(from).maxYear(to);
+        }
+
+        public Builder minRating(double rating) {
+            this.minRating = rating;
+            return this;
+        }
+
+        public Builder maxRating(double rating) {
+            this.maxRating = rating;
+            return this;
+        }
+
+        public Builder sortBy(SortField field, boolean descending) {
+            this.sortField = field;
+            this.descending = descending;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit must not be negative: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder offset(int offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Offset must not be negative: " + offset);
+            }
+            this.offset = offset;
+            return this;
+        }
+
+        public MovieQuery build() {
+            return new MovieQuery(this);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.c1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Выполнение MovieQuery в памяти: битовые карты фасетов пересекаются от самой селективной,
+// точные границы года и рейтинга проверяются уже на оставшихся кандидатах
+public class MovieQueryPlanner {
+    // Если фильтру соответствует хотя бы такая доля библиотеки, окно берётся из отсортированного индекса
+    private static final int SORTED_SCAN_RATIO = 4;
+    // Первые страницы дешевле отобрать кучей, чем один раз сортировать всю библиотеку
+    private static final int SHALLOW_WINDOW = 1000;
+
+    private final FacetIndex facetIndex;
+    // Отсортированные перестановки фильмов: [поле * 2 + направление], строятся по требованию
+    private final Movie[][] sortedIndexes = new Movie[SortField.values().length * 2][];
+
+    public MovieQueryPlanner(FacetIndex facetIndex) {
+        this.facetIndex = facetIndex;
+    }
+
+    // Данные изменились - отсортированные индексы придётся строить заново
+    public void invalidate() {
+        Arrays.fill(sortedIndexes, null);
+    }
+
+    public List<Movie> execute(MovieQuery query) {
+        CompressedBitmap candidates = candidates(query);
+
+        if (query.getSortField() != null && query.hasLimit()
+                && (long) candidates.cardinality() * SORTED_SCAN_RATIO >= facetIndex.all().cardinality()
+                && (sortedIndexes[slot(query)] != null || (long) query.getOffset() + query.getLimit() > SHALLOW_WINDOW)) {
+            return scanSorted(query, candidates);
+        }
+
+        List<Movie> result = new ArrayList<>();
+        candidates.forEach(id -> {
+            Movie movie = facetIndex.getMovie(id);
+            if (query.matches(movie)) {
+                result.add(movie);
+            }
+        });
+
+        // Без сортировки порядок - по возрастанию id, как его отдаёт битовая карта
+        if (query.getSortField() != null) {
+            Comparator<Movie> order = query.getSortField().comparator(query.isDescending());
+            if (query.hasLimit() && (long) query.getOffset() + query.getLimit() < result.size()) {
+                // Нужно только окно в начале порядка - полная сортировка не нужна
+                List<Movie> top = TopK.of(result, order, query.getOffset() + query.getLimit());
+                return window(top, query);
+            }
+            result.sort(order);
+        }
+        return window(result, query);
+    }
+
+    // Обход отсортированного индекса до заполнения окна: без фильтров это просто срез массива
+    private List<Movie> scanSorted(MovieQuery query, CompressedBitmap candidates) {
+        Movie[] sorted = sortedIndex(query);
+        List<Movie> result = new ArrayList<>(query.getLimit());
+        if (!query.hasFilters()) {
+            int to = (int) Math.min((long) query.getOffset() + query.getLimit(), sorted.length);
+            for (int i = query.getOffset(); i < to; i++) {
+                result.add(sorted[i]);
+            }
+            return result;
+        }
+        int skipped = 0;
+        for (int i = 0; i < sorted.length && result.size() < query.getLimit(); i++) {
+            Movie movie = sorted[i];
+            if (candidates.contains(movie.getId()) && query.matches(movie) && skipped++ >= query.getOffset()) {
+                result.add(movie);
+            }
+        }
+        return result;
+    }
+
+    private static int slot(MovieQuery query) {
+        return query.getSortField().ordinal() * 2 + (query.isDescending() ? 1 : 0);
+    }
+
+    private Movie[] sortedIndex(MovieQuery query) {
+        int slot = slot(query);
+        Movie[] sorted = sortedIndexes[slot];
+        if (sorted == null) {
+            List<Movie> movies = new ArrayList<>(facetIndex.all().cardinality());
+            facetIndex.all().forEach(id -> movies.add(facetIndex.getMovie(id)));
+            sorted = movies.toArray(new Movie[0]);
+            Arrays.parallelSort(sorted, query.getSortField().comparator(query.isDescending()));
+            sortedIndexes[slot] = sorted;
+        }
+        return sorted;
+    }
+
+    private CompressedBitmap candidates(MovieQuery query) {
+        List<CompressedBitmap> bitmaps = new ArrayList<>();
+        if (!query.getGenreIds().isEmpty()) {
+            bitmaps.add(facetIndex.union(Facet.GENRE, query.getGenreIds()));
+        }
+        if (!query.getDirectorIds().isEmpty()) {
+            bitmaps.add(facetIndex.union(Facet.DIRECTOR, query.getDirectorIds()));
+        }
+        if (query.getMinYear() != null || query.getMaxYear() != null) {
+            int from = query.getMinYear() != null ? query.getMinYear() / 10 * 10 : Integer.MIN_VALUE;
+            int to = query.getMaxYear() != null ? query.getMaxYear() / 10 * 10 : Integer.MAX_VALUE;
+            bitmaps.add(facetIndex.range(Facet.DECADE, from, to));
+        }
+        if (query.getMinRating() != null || query.getMaxRating() != null) {
+            int from = query.getMinRating() != null ? (int) Math.floor(query.getMinRating()) : Integer.MIN_VALUE;
+            int to = query.getMaxRating() != null ? (int) Math.floor(query.getMaxRating()) : Integer.MAX_VALUE;
+            bitmaps.add(facetIndex.range(Facet.RATING_BAND, from, to));
+        }
+        if (bitmaps.isEmpty()) {
+            return facetIndex.all();
+        }
+
+        bitmaps.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+        CompressedBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = result.and(bitmaps.get(i));
+        }
+        return result;
+    }
+
+    private static List<Movie> window(List<Movie> movies, MovieQuery query) {
+        int from = Math.min(query.getOffset(), movies.size());
+        int to = query.hasLimit() ? (int) Math.min((long) from + query.getLimit(), movies.size()) : movies.size();
+        if (from == 0 && to == movies.size()) {
+            return movies;
+        }
+        return new ArrayList<>(movies.subList(from, to));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.c1;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Перевод MovieQuery в один параметризованный SQL-запрос; имя колонки года у H2 и SQLite разное
+public class MovieQuerySql {
+    private final String alias;
+    private final String yearColumn;
+    private final List<Object> params = new ArrayList<>();
+
+    public MovieQuerySql(String alias, String yearColumn) {
+        this.alias = alias;
+        this.yearColumn = yearColumn;
+    }
+
+    // WHERE ... ORDER BY ... LIMIT ? OFFSET ? для запроса, начинающегося с SELECT ... FROM movies <alias>
+    public String clauses(MovieQuery query) {
+        params.clear();
+        List<String> conditions = new ArrayList<>();
+        addIn(conditions, "genre_id", query.getGenreIds());
+        addIn(conditions, "director_id", query.getDirectorIds());
+        addCondition(conditions, yearColumn + " >= ?", query.getMinYear());
+        addCondition(conditions, yearColumn + " <= ?", query.getMaxYear());
+        addCondition(conditions, "imdb_rating >= ?", query.getMinRating());
+        addCondition(conditions, "imdb_rating <= ?", query.getMaxRating());
+
+        StringBuilder sql = new StringBuilder();
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (query.getSortField() != null) {
+            sql.append(" ORDER BY ").append(column(sortColumn(query.getSortField())));
+            sql.append(query.isDescending() ? " DESC" : " ASC");
+            if (query.getSortField() != SortField.ID) {
+                sql.append(", ").append(column("id"));
+            }
+        }
+        if (query.hasLimit() || query.getOffset() > 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(query.hasLimit() ? query.getLimit() : Integer.MAX_VALUE);
+            params.add(query.getOffset());
+        }
+        return sql.toString();
+    }
+
+    // WHERE для FacetFilter: значения фасета через IN, фасеты через AND; выбранный фасет без значений
+    // ничего не пропускает, как пустое объединение битовых карт в FacetIndex
+    public String facetClauses(FacetFilter filter) {
+        params.clear();
+        List<String> conditions = new ArrayList<>();
+        for (Map.Entry<Facet, Set<Integer>> entry : filter.getSelected().entrySet()) {
+            Set<Integer> values = entry.getValue();
+            if (values.isEmpty()) {
+                conditions.add("1 = 0");
+                continue;
+            }
+            conditions.add(groupColumn(entry.getKey()) + " IN (" +
+                    String.join(", ", Collections.nCopies(values.size(), "?")) + ")");
+            params.addAll(values);
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    public void bind(PreparedStatement pstmt) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    public String sortColumn(SortField field) {
+        switch (field) {
+            case ID:
+                return "id";
+            case TITLE:
+                return "title_sort_key";
+            case ORIGINAL_TITLE:
+                return "original_title_sort_key";
+            case YEAR:
+                return yearColumn;
+            case RATING:
+                return "imdb_rating";
+            case VIEWS:
+                return "views";
+            default:
+                throw new IllegalArgumentException("Unknown sort field: " + field);
+        }
+    }
+
+    // Выражение группировки для фасета; рейтинг округляется вниз, как в Facet.RATING_BAND
+    public String groupColumn(Facet facet) {
+        switch (facet) {
+            case GENRE:
+                return column("genre_id");
+            case DIRECTOR:
+                return column("director_id");
+            case DECADE:
+                return "(" + column(yearColumn) + " / 10 * 10)";
+            case RATING_BAND:
+                return "CAST(FLOOR(" + column("imdb_rating") + ") AS INTEGER)";
+            default:
+                throw new IllegalArgumentException("Unknown facet: " + facet);
+        }
+    }
+
+    // Лучшие k строк в каждой группе через ROW_NUMBER() OVER (PARTITION BY ...)
+    public String topK(String columns, String from, Facet groupBy, SortField metric, int k) {
+        params.clear();
+        params.add(k);
+        return "SELECT * FROM (SELECT " + columns + ", " + groupColumn(groupBy) + " AS group_key, " +
+                "ROW_NUMBER() OVER (PARTITION BY " + groupColumn(groupBy) +
+                " ORDER BY " + column(sortColumn(metric)) + " DESC, " + column("id") + ") AS rn " +
+                "FROM " + from + ") ranked WHERE rn <= ? ORDER BY group_key, rn";
+    }
+
+    private String column(String name) {
+        return alias.isEmpty() ? name : alias + "." + name;
+    }
+
+    private void addIn(List<String> conditions, String name, Set<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        StringBuilder in = new StringBuilder(column(name)).append(ids.size() == 1 ? " = ?" : " IN (");
+        if (ids.size() > 1) {
+            in.append(String.join(", ", Collections.nCopies(ids.size(), "?"))).append(')');
+        }
+        conditions.add(in.toString());
+        params.addAll(ids);
+    }
+
+    private void addCondition(List<String> conditions, String condition, Object value) {
+        if (value != null) {
+            conditions.add(column(condition));
+            params.add(value);
+        }
+    }
+}
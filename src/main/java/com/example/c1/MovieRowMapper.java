@@ -0,0 +1,74 @@
+package com.example.c1;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Чтение Movie из ResultSet по номерам колонок. Номера определяются один раз на ResultSet;
+// год принимается и как release_year (H2), и как year (SQLite)
+public class MovieRowMapper {
+    private final GenreDAO genreDAO;
+    private final DirectorDAO directorDAO;
+    private final int idColumn;
+    private final int titleColumn;
+    private final int originalTitleColumn;
+    private final int yearColumn;
+    private final int ratingColumn;
+    private final int viewsColumn;
+    private final int directorColumn;
+    private final int genreColumn;
+
+    public MovieRowMapper(ResultSet rs, GenreDAO genreDAO, DirectorDAO directorDAO) throws SQLException {
+        this.genreDAO = genreDAO;
+        this.directorDAO = directorDAO;
+
+        Map<String, Integer> ordinals = new HashMap<>();
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = meta.getColumnCount(); i >= 1; i--) {
+            ordinals.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        idColumn = ordinal(ordinals, "id");
+        titleColumn = ordinal(ordinals, "title");
+        originalTitleColumn = ordinal(ordinals, "original_title");
+        yearColumn = ordinals.containsKey("release_year") ? ordinals.get("release_year") : ordinal(ordinals, "year");
+        ratingColumn = ordinal(ordinals, "imdb_rating");
+        viewsColumn = ordinal(ordinals, "views");
+        directorColumn = ordinal(ordinals, "director_id");
+        genreColumn = ordinal(ordinals, "genre_id");
+    }
+
+    private static int ordinal(Map<String, Integer> ordinals, String label) throws SQLException {
+        Integer ordinal = ordinals.get(label);
+        if (ordinal == null) {
+            throw new SQLException("Column not found in result set: " + label);
+        }
+        return ordinal;
+    }
+
+    public Movie map(ResultSet rs) throws SQLException {
+        return new Movie(
+                rs.getInt(idColumn),
+                rs.getString(titleColumn),
+                rs.getString(originalTitleColumn),
+                rs.getInt(yearColumn),
+                rs.getDouble(ratingColumn),
+                rs.getInt(viewsColumn),
+                directorDAO.getDirectorById(rs.getInt(directorColumn)),
+                genreDAO.getGenreById(rs.getInt(genreColumn))
+        );
+    }
+
+    // Все оставшиеся строки ResultSet
+    public List<Movie> mapAll(ResultSet rs) throws SQLException {
+        List<Movie> movies = new ArrayList<>();
+        while (rs.next()) {
+            movies.add(map(rs));
+        }
+        return movies;
+    }
+}
@@ -1,27 +1,38 @@
 package com.example.c1;
 
-import javax.sql.rowset.CachedRowSet;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 public class MovieSQLiteDAO implements MovieDAO {
+    private static final int BATCH_SIZE = 10_000;
+
     private final SQLiteDBConnect dbConnect;
     private final GenreDAO genreDAO;
     private final DirectorDAO directorDAO;
+    // Подписчики на изменения этой базы, уведомляются после фиксации записи
+    private final ChangeNotifier changes = new ChangeNotifier();
+
+    public MovieSQLiteDAO() {
+        this("media_library.db");
+    }
 
-    public MovieSQLiteDAO(GenreDAO genreDAO, DirectorDAO directorDAO) {
-        this.genreDAO = genreDAO;
-        this.directorDAO = directorDAO;
-        this.dbConnect = new SQLiteDBConnect("media_library.db");
+    public MovieSQLiteDAO(String dbPath) {
+        this.dbConnect = new SQLiteDBConnect(dbPath);
         try {
             dbConnect.connect();
             initializeDatabase();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to SQLite database", e);
         }
+        // Справочники этой базы: строки фильмов ссылаются на общие экземпляры жанров и режиссёров
+        this.genreDAO = new GenreDBImpl(dbConnect.getConnection());
+        this.directorDAO = new DirectorDBImpl(dbConnect.getConnection());
     }
 
     private void initializeDatabase() {
@@ -36,6 +47,8 @@ public class MovieSQLiteDAO implements MovieDAO {
                     "views INTEGER DEFAULT 0, " +
                     "director_id INTEGER, " +
                     "genre_id INTEGER, " +
+                    "title_sort_key BLOB, " +
+                    "original_title_sort_key BLOB, " +
                     "FOREIGN KEY (director_id) REFERENCES directors(id), " +
                     "FOREIGN KEY (genre_id) REFERENCES genres(id))");
 
@@ -55,15 +68,142 @@ public class MovieSQLiteDAO implements MovieDAO {
                     "change_date DATE NOT NULL, " +
                     "FOREIGN KEY (movie_id) REFERENCES movies(id))");
 
+            dbConnect.executeUpdate("CREATE INDEX IF NOT EXISTS idx_movie_schedules_planned_date " +
+                    "ON movie_schedules(planned_date)");
+
+            initializeFullTextIndex();
+
             // Insert initial data if tables are empty
             if (isTableEmpty("movies")) {
                 insertInitialData();
             }
+            initializeSortKeys();
         } catch (SQLException e) {
             throw new RuntimeException("Error initializing database", e);
         }
     }
 
+    // FTS5-таблица поверх movies (external content), синхронизируется триггерами
+    private void initializeFullTextIndex() throws SQLException {
+        boolean exists;
+        try (ResultSet rs = dbConnect.executeQuery(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'movies_fts'")) {
+            exists = rs.next() && rs.getInt(1) > 0;
+        }
+        // Триггеров нет, если массовая загрузка прервалась; строки, вставленные без них, в индекс не попали
+        boolean triggersExist;
+        try (ResultSet rs = dbConnect.executeQuery(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name = 'movies_fts_insert'")) {
+            triggersExist = rs.next() && rs.getInt(1) > 0;
+        }
+
+        dbConnect.executeUpdate("CREATE VIRTUAL TABLE IF NOT EXISTS movies_fts USING fts5(" +
+                "title, original_title, content='movies', content_rowid='id', " +
+                "tokenize='unicode61 remove_diacritics 2')");
+        createFullTextTriggers();
+
+        // Индекс создан впервые или отстал от таблицы - заполняем его заново
+        if (!exists || !triggersExist) {
+            dbConnect.executeUpdate("INSERT INTO movies_fts(movies_fts) VALUES ('rebuild')");
+        }
+    }
+
+    private void createFullTextTriggers() throws SQLException {
+        dbConnect.executeUpdate("CREATE TRIGGER IF NOT EXISTS movies_fts_insert AFTER INSERT ON movies BEGIN " +
+                "INSERT INTO movies_fts(rowid, title, original_title) VALUES (new.id, new.title, new.original_title); " +
+                "END");
+        dbConnect.executeUpdate("CREATE TRIGGER IF NOT EXISTS movies_fts_delete AFTER DELETE ON movies BEGIN " +
+                "INSERT INTO movies_fts(movies_fts, rowid, title, original_title) " +
+                "VALUES ('delete', old.id, old.title, old.original_title); " +
+                "END");
+        dbConnect.executeUpdate("CREATE TRIGGER IF NOT EXISTS movies_fts_update AFTER UPDATE OF title, original_title ON movies BEGIN " +
+                "INSERT INTO movies_fts(movies_fts, rowid, title, original_title) " +
+                "VALUES ('delete', old.id, old.title, old.original_title); " +
+                "INSERT INTO movies_fts(rowid, title, original_title) VALUES (new.id, new.title, new.original_title); " +
+                "END");
+    }
+
+    // Триггеры FTS5 на время загрузки снимаются: один 'rebuild' в конце строит индекс за проход по таблице
+    // вместо обновления индекса на каждую вставленную строку
+    @Override
+    public void bulkLoad(Runnable load) {
+        try {
+            dbConnect.executeUpdate("DROP TRIGGER IF EXISTS movies_fts_insert");
+            dbConnect.executeUpdate("DROP TRIGGER IF EXISTS movies_fts_delete");
+            dbConnect.executeUpdate("DROP TRIGGER IF EXISTS movies_fts_update");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error preparing bulk load", e);
+        }
+        try {
+            load.run();
+        } finally {
+            try {
+                dbConnect.executeUpdate("INSERT INTO movies_fts(movies_fts) VALUES ('rebuild')");
+                createFullTextTriggers();
+            } catch (SQLException e) {
+                throw new RuntimeException("Error rebuilding full-text index", e);
+            }
+        }
+    }
+
+    // Каждое слово запроса - префиксный терм FTS5 в кавычках, термы объединяются через AND
+    private static String toFtsQuery(String query) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append('"').append(word).append("\"*");
+            }
+        }
+        return sb.toString();
+    }
+
+    // Колонки ключей сортировки названий: добавляются в старые базы и заполняются для строк без ключа
+    private void initializeSortKeys() throws SQLException {
+        boolean exists = false;
+        // В SQLite нет ADD COLUMN IF NOT EXISTS, поэтому колонка ищется через PRAGMA table_info
+        try (ResultSet rs = dbConnect.executeQuery("PRAGMA table_info(movies)")) {
+            while (rs.next()) {
+                exists |= "title_sort_key".equalsIgnoreCase(rs.getString("name"));
+            }
+        }
+        if (!exists) {
+            dbConnect.executeUpdate("ALTER TABLE movies ADD COLUMN title_sort_key BLOB");
+            dbConnect.executeUpdate("ALTER TABLE movies ADD COLUMN original_title_sort_key BLOB");
+        }
+        dbConnect.executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_title_sort_key ON movies(title_sort_key)");
+        dbConnect.executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_original_title_sort_key " +
+                "ON movies(original_title_sort_key)");
+        backfillSortKeys();
+    }
+
+    private void backfillSortKeys() throws SQLException {
+        String selectSql = "SELECT id, title, original_title FROM movies " +
+                "WHERE title_sort_key IS NULL OR original_title_sort_key IS NULL";
+        String updateSql = "UPDATE movies SET title_sort_key = ?, original_title_sort_key = ? WHERE id = ?";
+        Connection connection = dbConnect.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (ResultSet rs = dbConnect.executeQuery(selectSql);
+             PreparedStatement pstmt = dbConnect.prepareStatement(updateSql)) {
+            while (rs.next()) {
+                pstmt.setBytes(1, TitleCollation.sortKey(rs.getString("title")));
+                pstmt.setBytes(2, TitleCollation.sortKey(rs.getString("original_title")));
+                pstmt.setInt(3, rs.getInt("id"));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
     private boolean isTableEmpty(String tableName) throws SQLException {
         String sql = "SELECT COUNT(*) FROM " + tableName;
         try (ResultSet rs = dbConnect.executeQuery(sql)) {
@@ -87,18 +227,25 @@ public class MovieSQLiteDAO implements MovieDAO {
                 "VALUES ('Pulp Fiction', 'Pulp Fiction', 1994, 8.9, 150, 2, 2)");
     }
 
+    // Параметры 1-9 общие для INSERT и UPDATE
+    private static void bindMovie(PreparedStatement pstmt, Movie movie) throws SQLException {
+        pstmt.setString(1, movie.getTitle());
+        pstmt.setString(2, movie.getOriginalTitle());
+        pstmt.setInt(3, movie.getYear());
+        pstmt.setDouble(4, movie.getImdbRating());
+        pstmt.setInt(5, movie.getViews());
+        pstmt.setInt(6, movie.getDirector().getId());
+        pstmt.setInt(7, movie.getGenre().getId());
+        pstmt.setBytes(8, movie.getTitleSortKey());
+        pstmt.setBytes(9, movie.getOriginalTitleSortKey());
+    }
+
     @Override
     public void addMovie(Movie movie) {
-        String sql = "INSERT INTO movies (title, original_title, year, imdb_rating, views, director_id, genre_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO movies (title, original_title, year, imdb_rating, views, director_id, genre_id, " +
+                "title_sort_key, original_title_sort_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, movie.getTitle());
-            pstmt.setString(2, movie.getOriginalTitle());
-            pstmt.setInt(3, movie.getYear());
-            pstmt.setDouble(4, movie.getImdbRating());
-            pstmt.setInt(5, movie.getViews());
-            pstmt.setInt(6, movie.getDirector().getId());
-            pstmt.setInt(7, movie.getGenre().getId());
+            bindMovie(pstmt, movie);
             pstmt.executeUpdate();
 
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
@@ -109,29 +256,75 @@ public class MovieSQLiteDAO implements MovieDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Error adding movie", e);
         }
+        changes.movieAdded(movie);
+    }
+
+    // Драйвер после executeBatch отдаёт только последний ключ, поэтому id назначаются явно
+    // в той же транзакции, начиная за максимумом из таблицы и sqlite_sequence (id не переиспользуются)
+    @Override
+    public void addMovies(List<Movie> movies) {
+        String sql = "INSERT INTO movies (title, original_title, year, imdb_rating, views, director_id, genre_id, " +
+                "title_sort_key, original_title_sort_key, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String maxIdSql = "SELECT MAX(COALESCE((SELECT MAX(id) FROM movies), 0), " +
+                "COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'movies'), 0))";
+        Connection connection = dbConnect.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement maxIdPstmt = dbConnect.prepareStatement(maxIdSql);
+                 PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+                int nextId;
+                try (ResultSet rs = maxIdPstmt.executeQuery()) {
+                    nextId = rs.next() ? rs.getInt(1) + 1 : 1;
+                }
+                for (int i = 0; i < movies.size(); i++) {
+                    Movie movie = movies.get(i);
+                    bindMovie(pstmt, movie);
+                    pstmt.setInt(10, nextId + i);
+                    pstmt.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+                connection.commit();
+                for (int i = 0; i < movies.size(); i++) {
+                    movies.get(i).setId(nextId + i);
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adding movies", e);
+        }
+        changes.moviesAdded(movies);
     }
 
     @Override
-    public void updateMovie(Movie movie) {
+    public boolean updateMovie(Movie movie) {
         String sql = "UPDATE movies SET title = ?, original_title = ?, year = ?, " +
-                "imdb_rating = ?, views = ?, director_id = ?, genre_id = ? WHERE id = ?";
+                "imdb_rating = ?, views = ?, director_id = ?, genre_id = ?, " +
+                "title_sort_key = ?, original_title_sort_key = ? WHERE id = ?";
+        int updated;
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
-            pstmt.setString(1, movie.getTitle());
-            pstmt.setString(2, movie.getOriginalTitle());
-            pstmt.setInt(3, movie.getYear());
-            pstmt.setDouble(4, movie.getImdbRating());
-            pstmt.setInt(5, movie.getViews());
-            pstmt.setInt(6, movie.getDirector().getId());
-            pstmt.setInt(7, movie.getGenre().getId());
-            pstmt.setInt(8, movie.getId());
-            pstmt.executeUpdate();
+            bindMovie(pstmt, movie);
+            pstmt.setInt(10, movie.getId());
+            updated = pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating movie", e);
         }
+        if (updated > 0) {
+            changes.movieUpdated(movie);
+        }
+        return updated > 0;
     }
 
     @Override
     public void deleteMovie(int id) {
+        int deleted;
         try {
             // First delete schedule-related data
             deleteScheduleData(id);
@@ -140,11 +333,14 @@ public class MovieSQLiteDAO implements MovieDAO {
             String sql = "DELETE FROM movies WHERE id = ?";
             try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
                 pstmt.setInt(1, id);
-                pstmt.executeUpdate();
+                deleted = pstmt.executeUpdate();
             }
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting movie", e);
         }
+        if (deleted > 0) {
+            changes.movieDeleted(id);
+        }
     }
 
     private void deleteScheduleData(int movieId) throws SQLException {
@@ -161,30 +357,22 @@ public class MovieSQLiteDAO implements MovieDAO {
         }
     }
 
+    // Единая точка чтения фильмов: номера колонок определяются один раз на запрос
+    private List<Movie> readMovies(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return new MovieRowMapper(rs, genreDAO, directorDAO).mapAll(rs);
+        }
+    }
+
     @Override
     public List<Movie> getAllMovies() {
         List<Movie> movies = new ArrayList<>();
         String sql = "SELECT m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
-                "m.director_id, m.genre_id, d.name AS director_name, g.name AS genre_name " +
-                "FROM movies m " +
-                "LEFT JOIN directors d ON m.director_id = d.id " +
-                "LEFT JOIN genres g ON m.genre_id = g.id";
-
-        try (CachedRowSet crs = dbConnect.executeQuery(sql)) {
-            while (crs.next()) {
-                Director director = new Director(crs.getInt("director_id"), crs.getString("director_name"));
-                Genre genre = new Genre(crs.getInt("genre_id"), crs.getString("genre_name"));
-                movies.add(new Movie(
-                        crs.getInt("id"),
-                        crs.getString("title"),
-                        crs.getString("original_title"),
-                        crs.getInt("year"),
-                        crs.getDouble("imdb_rating"),
-                        crs.getInt("views"),
-                        director,
-                        genre
-                ));
-            }
+                "m.director_id, m.genre_id " +
+                "FROM movies m";
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            movies.addAll(readMovies(pstmt));
         } catch (SQLException e) {
             throw new RuntimeException("Error getting movies", e);
         }
@@ -202,6 +390,7 @@ public class MovieSQLiteDAO implements MovieDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Error setting movie schedule", e);
         }
+        changes.scheduleSet(movieId, plannedDate);
     }
 
     @Override
@@ -235,6 +424,7 @@ public class MovieSQLiteDAO implements MovieDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Error updating movie schedule", e);
         }
+        changes.scheduleRescheduled(movieId, newDate);
     }
 
     private Optional<LocalDate> getCurrentPlannedDate(int movieId) throws SQLException {
@@ -257,12 +447,7 @@ public class MovieSQLiteDAO implements MovieDAO {
             pstmt.setInt(1, movieId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    MovieSchedule schedule = new MovieSchedule(movieId, rs.getDate("planned_date").toLocalDate());
-                    if (rs.getDate("completion_date") != null) {
-                        schedule.markAsCompleted(rs.getDate("completion_date").toLocalDate());
-                    }
-                    schedule.setReminderSent(rs.getBoolean("reminder_sent"));
-                    return schedule;
+                    return readSchedule(rs, movieId);
                 }
             }
         } catch (SQLException e) {
@@ -277,11 +462,9 @@ public class MovieSQLiteDAO implements MovieDAO {
         LocalDate deadline = now.plusDays(daysBefore);
 
         String sql = "SELECT m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
-                "m.director_id, m.genre_id, d.name AS director_name, g.name AS genre_name " +
+                "m.director_id, m.genre_id " +
                 "FROM movies m " +
                 "JOIN movie_schedules ms ON m.id = ms.movie_id " +
-                "JOIN directors d ON m.director_id = d.id " +
-                "JOIN genres g ON m.genre_id = g.id " +
                 "WHERE ms.planned_date BETWEEN ? AND ? " +
                 "AND ms.completion_date IS NULL " +
                 "AND (ms.reminder_sent = FALSE OR ms.reminder_sent IS NULL)";
@@ -291,55 +474,92 @@ public class MovieSQLiteDAO implements MovieDAO {
             pstmt.setDate(1, Date.valueOf(now));
             pstmt.setDate(2, Date.valueOf(deadline));
 
+            movies.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error getting movies with upcoming deadlines", e);
+        }
+        return movies;
+    }
+
+    private MovieSchedule readSchedule(ResultSet rs, int movieId) throws SQLException {
+        MovieSchedule schedule = new MovieSchedule(movieId, rs.getDate("planned_date").toLocalDate());
+        if (rs.getDate("completion_date") != null) {
+            schedule.markAsCompleted(rs.getDate("completion_date").toLocalDate());
+        }
+        schedule.setReminderSent(rs.getBoolean("reminder_sent"));
+        return schedule;
+    }
+
+    @Override
+    public List<MovieSchedule> getSchedulesBetween(LocalDate from, LocalDate to) {
+        String sql = "SELECT movie_id, planned_date, completion_date, reminder_sent FROM movie_schedules " +
+                "WHERE planned_date BETWEEN ? AND ? ORDER BY planned_date, movie_id";
+        List<MovieSchedule> schedules = new ArrayList<>();
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Director director = new Director(rs.getInt("director_id"), rs.getString("director_name"));
-                    Genre genre = new Genre(rs.getInt("genre_id"), rs.getString("genre_name"));
-                    movies.add(new Movie(
-                            rs.getInt("id"),
-                            rs.getString("title"),
-                            rs.getString("original_title"),
-                            rs.getInt("year"),
-                            rs.getDouble("imdb_rating"),
-                            rs.getInt("views"),
-                            director,
-                            genre
-                    ));
-                }
-            }
-
-            // Mark reminders as sent
-            if (!movies.isEmpty()) {
-                String updateSql = "UPDATE movie_schedules SET reminder_sent = TRUE " +
-                        "WHERE planned_date BETWEEN ? AND ?";
-                try (PreparedStatement updatePstmt = dbConnect.prepareStatement(updateSql)) {
-                    updatePstmt.setDate(1, Date.valueOf(now));
-                    updatePstmt.setDate(2, Date.valueOf(deadline));
-                    updatePstmt.executeUpdate();
+                    schedules.add(readSchedule(rs, rs.getInt("movie_id")));
                 }
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Error getting movies with upcoming deadlines", e);
+            throw new RuntimeException("Error getting schedules in range", e);
         }
-        return movies;
+        return schedules;
     }
 
     @Override
     public void markMovieAsWatched(int movieId) {
         String sql = "UPDATE movie_schedules SET completion_date = ? WHERE movie_id = ?";
+        LocalDate completionDate = LocalDate.now();
+        int updated;
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
-            pstmt.setDate(1, Date.valueOf(LocalDate.now()));
+            pstmt.setDate(1, Date.valueOf(completionDate));
             pstmt.setInt(2, movieId);
-            pstmt.executeUpdate();
+            updated = pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Error marking movie as watched", e);
         }
+        // Без срока отмечать нечего; событие только при реальном изменении, как в MovieCSVDAO
+        if (updated > 0) {
+            changes.scheduleCompleted(movieId, completionDate);
+        }
+    }
+
+    @Override
+    public void markRemindersSent(int[] movieIds) {
+        if (movieIds.length == 0) {
+            return;
+        }
+        String sql = "UPDATE movie_schedules SET reminder_sent = TRUE WHERE movie_id = ?";
+        Connection connection = dbConnect.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+                for (int movieId : movieIds) {
+                    pstmt.setInt(1, movieId);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error marking reminders as sent", e);
+        }
     }
 
     @Override
     public List<ScheduleChange> getScheduleHistory(int movieId) {
         String sql = "SELECT old_date, new_date, reason, change_date FROM schedule_changes " +
-                "WHERE movie_id = ? ORDER BY change_date DESC";
+                "WHERE movie_id = ? ORDER BY change_date DESC, id DESC";
         List<ScheduleChange> history = new ArrayList<>();
 
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
@@ -360,13 +580,54 @@ public class MovieSQLiteDAO implements MovieDAO {
         return history;
     }
 
+    @Override
+    public void addSchedules(List<MovieSchedule> schedules) {
+        String scheduleSql = "INSERT OR REPLACE INTO movie_schedules (movie_id, planned_date, completion_date, reminder_sent) " +
+                "VALUES (?, ?, ?, ?)";
+        String historySql = "INSERT INTO schedule_changes (movie_id, old_date, new_date, reason, change_date) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        Connection connection = dbConnect.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement schedulePstmt = dbConnect.prepareStatement(scheduleSql);
+                 PreparedStatement historyPstmt = dbConnect.prepareStatement(historySql)) {
+                for (MovieSchedule schedule : schedules) {
+                    schedulePstmt.setInt(1, schedule.getMovieId());
+                    schedulePstmt.setDate(2, Date.valueOf(schedule.getPlannedDate()));
+                    schedulePstmt.setDate(3, schedule.getCompletionDate() == null ? null : Date.valueOf(schedule.getCompletionDate()));
+                    schedulePstmt.setBoolean(4, schedule.isReminderSent());
+                    schedulePstmt.addBatch();
+                    for (ScheduleChange change : schedule.getChangeHistory()) {
+                        historyPstmt.setInt(1, schedule.getMovieId());
+                        historyPstmt.setDate(2, Date.valueOf(change.getOldDate()));
+                        historyPstmt.setDate(3, Date.valueOf(change.getNewDate()));
+                        historyPstmt.setString(4, change.getReason());
+                        historyPstmt.setDate(5, Date.valueOf(change.getChangeDate()));
+                        historyPstmt.addBatch();
+                    }
+                }
+                schedulePstmt.executeBatch();
+                historyPstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adding schedules", e);
+        }
+        changes.schedulesAdded(schedules);
+    }
+
     @Override
     public List<Movie> smartSearch(Genre genre, double minRating, int minYear) {
         List<Movie> result = new ArrayList<>();
         String sql = "SELECT m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
-                "m.director_id, d.name AS director_name " +
+                "m.director_id, m.genre_id " +
                 "FROM movies m " +
-                "JOIN directors d ON m.director_id = d.id " +
                 "WHERE m.genre_id = ? AND m.imdb_rating >= ? AND m.year >= ?";
 
         try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
@@ -374,48 +635,140 @@ public class MovieSQLiteDAO implements MovieDAO {
             pstmt.setDouble(2, minRating);
             pstmt.setInt(3, minYear);
 
+            result.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error in smart search", e);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Movie> searchByTitle(String query, int limit) {
+        List<Movie> result = new ArrayList<>();
+        String ftsQuery = query == null ? "" : toFtsQuery(query);
+        if (ftsQuery.isEmpty()) {
+            return result;
+        }
+        String sql = "SELECT m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
+                "m.director_id, m.genre_id " +
+                "FROM movies_fts f " +
+                "JOIN movies m ON m.id = f.rowid " +
+                "WHERE movies_fts MATCH ? " +
+                "ORDER BY bm25(movies_fts) LIMIT ?";
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            pstmt.setString(1, ftsQuery);
+            pstmt.setInt(2, limit);
+            result.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching movies by title", e);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Movie> find(MovieQuery query) {
+        List<Movie> result = new ArrayList<>();
+        MovieQuerySql querySql = new MovieQuerySql("m", "year");
+        String sql = "SELECT m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
+                "m.director_id, m.genre_id " +
+                "FROM movies m" + querySql.clauses(query);
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            querySql.bind(pstmt);
+            result.addAll(readMovies(pstmt));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error executing movie query", e);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Integer, List<Movie>> topK(Facet groupBy, SortField metric, int k) {
+        Map<Integer, List<Movie>> result = new TreeMap<>();
+        if (k <= 0) {
+            return result;
+        }
+        MovieQuerySql querySql = new MovieQuerySql("m", "year");
+        String sql = querySql.topK("m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
+                        "m.director_id, m.genre_id",
+                "movies m",
+                groupBy, metric, k);
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            querySql.bind(pstmt);
             try (ResultSet rs = pstmt.executeQuery()) {
+                MovieRowMapper mapper = new MovieRowMapper(rs, genreDAO, directorDAO);
+                int groupColumn = rs.findColumn("group_key");
                 while (rs.next()) {
-                    Director director = new Director(rs.getInt("director_id"), rs.getString("director_name"));
-                    result.add(new Movie(
-                            rs.getInt("id"),
-                            rs.getString("title"),
-                            rs.getString("original_title"),
-                            rs.getInt("year"),
-                            rs.getDouble("imdb_rating"),
-                            rs.getInt("views"),
-                            director,
-                            genre
-                    ));
+                    result.computeIfAbsent(rs.getInt(groupColumn), g -> new ArrayList<>()).add(mapper.map(rs));
                 }
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Error in smart search", e);
+            throw new RuntimeException("Error getting top movies", e);
         }
         return result;
     }
 
+    // Отобранные фильмы одним запросом и по одному GROUP BY на фасет с тем же WHERE;
+    // счётчики совпадают с FacetIndex.search, вся таблица в память не читается
+    @Override
+    public FacetResult facetedSearch(FacetFilter filter) {
+        MovieQuerySql querySql = new MovieQuerySql("m", "year");
+        String where = querySql.facetClauses(filter);
+        String sql = "SELECT m.id, m.title, m.original_title, m.year, m.imdb_rating, m.views, " +
+                "m.director_id, m.genre_id " +
+                "FROM movies m" + where + " ORDER BY m.id";
+
+        List<Movie> movies;
+        Map<Facet, Map<Integer, Integer>> counts = new EnumMap<>(Facet.class);
+        try {
+            try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+                querySql.bind(pstmt);
+                movies = readMovies(pstmt);
+            }
+            for (Facet facet : Facet.values()) {
+                String group = querySql.groupColumn(facet);
+                String countSql = "SELECT " + group + " AS facet_value, COUNT(*) AS movie_count FROM movies m" +
+                        where + " GROUP BY " + group;
+                Map<Integer, Integer> facetCounts = new TreeMap<>();
+                try (PreparedStatement pstmt = dbConnect.prepareStatement(countSql)) {
+                    querySql.bind(pstmt);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            facetCounts.put(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+                counts.put(facet, facetCounts);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error in faceted search", e);
+        }
+        return new FacetResult(movies, counts);
+    }
+
     @Override
     public double getDirectorViewPercentage(Director director) {
         try {
             String totalSql = "SELECT SUM(views) AS total FROM movies WHERE director_id = ?";
             String allSql = "SELECT SUM(views) AS all_total FROM movies";
 
-            int directorViews = 0;
-            int allViews = 0;
+            long directorViews = 0;
+            long allViews = 0;
 
             try (PreparedStatement pstmt = dbConnect.prepareStatement(totalSql)) {
                 pstmt.setInt(1, director.getId());
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
-                        directorViews = rs.getInt("total");
+                        directorViews = rs.getLong("total");
                     }
                 }
             }
 
             try (ResultSet rs = dbConnect.executeQuery(allSql)) {
                 if (rs.next()) {
-                    allViews = rs.getInt("all_total");
+                    allViews = rs.getLong("all_total");
                 }
             }
 
@@ -430,27 +783,15 @@ public class MovieSQLiteDAO implements MovieDAO {
     public List<Movie> findDuplicatesByTmdb() {
         List<Movie> duplicates = new ArrayList<>();
         String sql = "SELECT m1.id, m1.title, m1.original_title, m1.year, m1.imdb_rating, " +
-                "m1.views, m1.director_id, m1.genre_id, d.name AS director_name, g.name AS genre_name " +
+                "m1.views, m1.director_id, m1.genre_id " +
                 "FROM movies m1 " +
-                "JOIN movies m2 ON m1.original_title = m2.original_title AND m1.year = m2.year AND m1.id != m2.id " +
-                "JOIN directors d ON m1.director_id = d.id " +
-                "JOIN genres g ON m1.genre_id = g.id";
-
-        try (CachedRowSet crs = dbConnect.executeQuery(sql)) {
-            while (crs.next()) {
-                Director director = new Director(crs.getInt("director_id"), crs.getString("director_name"));
-                Genre genre = new Genre(crs.getInt("genre_id"), crs.getString("genre_name"));
-                duplicates.add(new Movie(
-                        crs.getInt("id"),
-                        crs.getString("title"),
-                        crs.getString("original_title"),
-                        crs.getInt("year"),
-                        crs.getDouble("imdb_rating"),
-                        crs.getInt("views"),
-                        director,
-                        genre
-                ));
-            }
+                "JOIN (SELECT original_title, year FROM movies " +
+                "GROUP BY original_title, year HAVING COUNT(*) > 1) dup " +
+                "ON m1.original_title = dup.original_title AND m1.year = dup.year " +
+                "ORDER BY m1.original_title, m1.year, m1.id";
+
+        try (PreparedStatement pstmt = dbConnect.prepareStatement(sql)) {
+            duplicates.addAll(readMovies(pstmt));
         } catch (SQLException e) {
             throw new RuntimeException("Error finding duplicates", e);
         }
@@ -472,7 +813,29 @@ public class MovieSQLiteDAO implements MovieDAO {
         return dbConnect.getDbPath();
     }
 
-    public void disconnect() {
+    @Override
+    public GenreDAO getGenreDAO() {
+        return genreDAO;
+    }
+
+    @Override
+    public DirectorDAO getDirectorDAO() {
+        return directorDAO;
+    }
+
+    @Override
+    public void addChangeListener(MovieChangeListener listener) {
+        changes.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(MovieChangeListener listener) {
+        changes.removeListener(listener);
+    }
+
+    @Override
+    public void close() {
+        changes.close();
         dbConnect.disconnect();
     }
 }
\ No newline at end of file
@@ -3,11 +3,16 @@ package com.example.c1;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class MovieSchedule implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // Порядок индекса сроков: по дате, при совпадении - по id фильма
+    public static final Comparator<MovieSchedule> BY_PLANNED_DATE =
+            Comparator.comparing(MovieSchedule::getPlannedDate).thenComparingInt(MovieSchedule::getMovieId);
+
     private int movieId;
     private LocalDate plannedDate;
     private LocalDate completionDate;
@@ -27,8 +32,12 @@ public class MovieSchedule implements Serializable {
     public boolean isReminderSent() { return reminderSent; }
 
     public void setPlannedDate(LocalDate newDate, String reason) {
+        setPlannedDate(newDate, reason, LocalDate.now());
+    }
+
+    public void setPlannedDate(LocalDate newDate, String reason, LocalDate changeDate) {
         if (plannedDate != null) {
-            changeHistory.add(new ScheduleChange(plannedDate, newDate, reason));
+            changeHistory.add(new ScheduleChange(plannedDate, newDate, reason, changeDate));
         }
         this.plannedDate = newDate;
         this.reminderSent = false;
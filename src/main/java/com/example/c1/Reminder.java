@@ -0,0 +1,16 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+
+public class Reminder {
+    private final Movie movie;
+    private final LocalDate plannedDate;
+
+    public Reminder(Movie movie, LocalDate plannedDate) {
+        this.movie = movie;
+        this.plannedDate = plannedDate;
+    }
+
+    public Movie getMovie() { return movie; }
+    public LocalDate getPlannedDate() { return plannedDate; }
+}
@@ -0,0 +1,91 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+public class ReminderService {
+    private final MovieDAO movieDAO;
+    private final int daysBefore;
+    // Получает напоминания и действие, которое нужно вызвать, когда они действительно показаны
+    private final BiConsumer<List<Reminder>, Runnable> listener;
+    private final ScheduledExecutorService executor;
+
+    public ReminderService(MovieDAO movieDAO, int daysBefore, BiConsumer<List<Reminder>, Runnable> listener) {
+        this.movieDAO = movieDAO;
+        this.daysBefore = daysBefore;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reminder-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long period, TimeUnit unit) {
+        executor.scheduleWithFixedDelay(this::checkReminders, 0, period, unit);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void checkReminders() {
+        try {
+            List<Reminder> reminders = collectDueReminders();
+            if (!reminders.isEmpty()) {
+                listener.accept(reminders, () -> markShown(reminders));
+            }
+        } catch (Exception e) {
+            System.err.println("Reminder check failed: " + e.getMessage());
+        }
+    }
+
+    // Отметка уходит в поток сервиса, а не в поток UI. Если сервис уже остановлен (сменился источник),
+    // напоминания не отмечаются и будут показаны снова при следующей проверке
+    private void markShown(List<Reminder> reminders) {
+        int[] movieIds = new int[reminders.size()];
+        for (int i = 0; i < movieIds.length; i++) {
+            movieIds[i] = reminders.get(i).getMovie().getId();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    movieDAO.markRemindersSent(movieIds);
+                } catch (Exception e) {
+                    System.err.println("Marking reminders failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Сервис остановлен
+        }
+    }
+
+    // Фильмы и их сроки берутся двумя запросами, без getMovieSchedule на каждый фильм
+    public List<Reminder> collectDueReminders() {
+        List<Movie> movies = movieDAO.getMoviesWithUpcomingDeadlines(daysBefore);
+        if (movies.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        LocalDate now = LocalDate.now();
+        IntHashMap<MovieSchedule> schedules = new IntHashMap<>(movies.size());
+        for (MovieSchedule schedule : movieDAO.getSchedulesBetween(now, now.plusDays(daysBefore))) {
+            schedules.put(schedule.getMovieId(), schedule);
+        }
+
+        List<Reminder> reminders = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            MovieSchedule schedule = schedules.get(movie.getId());
+            if (schedule != null) {
+                reminders.add(new Reminder(movie, schedule.getPlannedDate()));
+            }
+        }
+        return reminders;
+    }
+}
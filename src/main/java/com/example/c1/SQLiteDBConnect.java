@@ -3,10 +3,13 @@ package com.example.c1;
 import javax.sql.rowset.CachedRowSet;
 import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
+import java.util.List;
 
 public class SQLiteDBConnect {
+    private static final String DATABASE = "SQLite";
     private final String dbPath;
     private Connection connection;
+    private final SqlTracing tracing = new SqlTracing(DATABASE, this::explain);
 
     public SQLiteDBConnect(String dbPath) {
         this.dbPath = dbPath;
@@ -41,9 +44,19 @@ public class SQLiteDBConnect {
                 "views INTEGER DEFAULT 0, " +
                 "director_id INTEGER, " +
                 "genre_id INTEGER, " +
+                "title_sort_key BLOB, " +
+                "original_title_sort_key BLOB, " +
                 "FOREIGN KEY (director_id) REFERENCES directors(id), " +
                 "FOREIGN KEY (genre_id) REFERENCES genres(id))");
 
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_title_year ON movies(original_title, year)");
+        // Индексы под фильтры и сортировки MovieQuery
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_genre_rating ON movies(genre_id, imdb_rating)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_director ON movies(director_id)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_year ON movies(year)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_rating ON movies(imdb_rating)");
+        executeUpdate("CREATE INDEX IF NOT EXISTS idx_movies_views ON movies(views)");
+
         // Fill with initial data if empty
         fillInitialData();
     }
@@ -78,26 +91,54 @@ public class SQLiteDBConnect {
     }
 
     public CachedRowSet executeQuery(String query) throws SQLException {
+        SqlTracing.Execution execution = tracing.begin(query);
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             CachedRowSet crs = RowSetProvider.newFactory().createCachedRowSet();
             crs.populate(rs);
+            execution.complete(crs.size());
             return crs;
         }
     }
 
     public int executeUpdate(String sql) throws SQLException {
+        SqlTracing.Execution execution = tracing.begin(sql);
         try (Statement stmt = connection.createStatement()) {
-            return stmt.executeUpdate(sql);
+            int rows = stmt.executeUpdate(sql);
+            execution.complete(rows);
+            return rows;
         }
     }
 
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        return connection.prepareStatement(sql);
+        return tracing.trace(connection.prepareStatement(sql), sql);
     }
 
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-        return connection.prepareStatement(sql, autoGeneratedKeys);
+        return tracing.trace(connection.prepareStatement(sql, autoGeneratedKeys), sql);
+    }
+
+    // Запросы дольше порога пишутся в SlowQueryLog вместе с параметрами и планом
+    public void setSlowQueryThresholdMillis(long millis) {
+        tracing.setSlowQueryThresholdMillis(millis);
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return tracing.getSlowQueryThresholdMillis();
+    }
+
+    // EXPLAIN QUERY PLAN: по строке на шаг, "SCAN" без индекса - признак недостающего индекса
+    private String explain(String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            SqlTracing.bind(pstmt, params);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString("detail")).append(System.lineSeparator());
+                }
+            }
+            return plan.toString().trim();
+        }
     }
 
     public void disconnect() {
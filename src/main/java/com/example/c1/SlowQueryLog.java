@@ -0,0 +1,102 @@
+package com.example.c1;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+// Журнал медленных SQL-запросов с параметрами и планом выполнения.
+// Файлы slow-queries.0.log ... slow-queries.4.log по 5 МБ с ротацией; путь и порог задаются
+// свойствами -Dc1.slowQueryLog=<шаблон FileHandler> и -Dc1.slowQueryMillis=<мс, 0 - выключено>.
+// По умолчанию выключен: при включённом журнале каждый запрос и ResultSet идут через прокси SqlTracing
+public class SlowQueryLog {
+    private static final Logger LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+    private static final String DEFAULT_PATTERN = "slow-queries.%g.log";
+    private static final int FILE_LIMIT_BYTES = 5 * 1024 * 1024;
+    private static final int FILE_COUNT = 5;
+    private static final long DEFAULT_THRESHOLD_MILLIS = 0;
+
+    private static boolean initialized;
+
+    private SlowQueryLog() {
+    }
+
+    public static long defaultThresholdMillis() {
+        return Long.getLong("c1.slowQueryMillis", DEFAULT_THRESHOLD_MILLIS);
+    }
+
+    public static void log(String database, String sql, String params, long nanos, long rows, String plan) {
+        if (!ensureHandler()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append('[').append(database).append("] ")
+                .append(String.format("%.1f ms, %d rows", nanos / 1e6, rows)).append(System.lineSeparator())
+                .append("  SQL: ").append(sql).append(System.lineSeparator());
+        if (!params.isEmpty()) {
+            sb.append("  Params: ").append(params).append(System.lineSeparator());
+        }
+        if (plan != null) {
+            sb.append("  Plan:").append(System.lineSeparator());
+            for (String line : plan.split("\\R")) {
+                sb.append("    ").append(line).append(System.lineSeparator());
+            }
+        }
+        LOGGER.warning(sb.toString());
+    }
+
+    // Параметры в порядке индексов; двоичные значения (ключи сортировки) - только длиной
+    public static String formatParams(List<Object> params) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object value = params.get(i);
+            if (value instanceof byte[]) {
+                sb.append("<").append(((byte[]) value).length).append(" bytes>");
+            } else if (value instanceof String) {
+                sb.append('\'').append(value).append('\'');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Файл создаётся при первом медленном запросе, а не при старте приложения
+    private static synchronized boolean ensureHandler() {
+        if (!initialized) {
+            initialized = true;
+            try {
+                FileHandler handler = new FileHandler(System.getProperty("c1.slowQueryLog", DEFAULT_PATTERN),
+                        FILE_LIMIT_BYTES, FILE_COUNT, true);
+                handler.setEncoding("UTF-8");
+                handler.setFormatter(new EntryFormatter());
+                LOGGER.addHandler(handler);
+                LOGGER.setUseParentHandlers(false);
+                LOGGER.setLevel(Level.ALL);
+            } catch (IOException e) {
+                System.err.println("Error opening slow query log: " + e.getMessage());
+            }
+        }
+        return LOGGER.getHandlers().length > 0;
+    }
+
+    private static class EntryFormatter extends Formatter {
+        private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+        @Override
+        public String format(LogRecord record) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getMillis()), ZoneId.systemDefault());
+            return TIME.format(time) + " " + record.getMessage() + System.lineSeparator();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.c1;
+
+import java.util.Comparator;
+
+// Поля сортировки; для БД колонка выбирается в DAO (release_year в H2, year в SQLite).
+// Названия сравниваются по ключам TitleCollation, в БД - по сохранённым колонкам *_sort_key
+public enum SortField {
+    ID(Comparator.comparingInt(Movie::getId)),
+    TITLE((a, b) -> TitleCollation.compare(a.getTitleSortKey(), b.getTitleSortKey())),
+    ORIGINAL_TITLE((a, b) -> TitleCollation.compare(a.getOriginalTitleSortKey(), b.getOriginalTitleSortKey())),
+    YEAR(Comparator.comparingInt(Movie::getYear)),
+    RATING(Comparator.comparingDouble(Movie::getImdbRating)),
+    VIEWS(Comparator.comparingInt(Movie::getViews));
+
+    private final Comparator<Movie> comparator;
+
+    SortField(Comparator<Movie> comparator) {
+        this.comparator = comparator;
+    }
+
+    // При равенстве ключа порядок определяется id, чтобы страницы не перекрывались
+    public Comparator<Movie> comparator(boolean descending) {
+        Comparator<Movie> order = descending ? comparator.reversed() : comparator;
+        return this == ID ? order : order.thenComparingInt(Movie::getId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.c1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.c1.SqlStatement")
+@Label("SQL Statement")
+@Category({"Media Library", "Database"})
+@Description("Выполнение SQL в H2DBConnect/SQLiteDBConnect; для запросов длительность включает чтение строк")
+public class SqlStatementEvent extends Event {
+    @Label("Database")
+    String database;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    long rows;
+
+    // Завершает замер и сохраняет событие, если оно проходит порог записи
+    void complete(String database, String sql, long rows) {
+        end();
+        if (shouldCommit()) {
+            this.database = database;
+            this.sql = sql;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.c1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Наблюдение за SQL одного подключения: события JFR SqlStatement и журнал медленных запросов.
+// PreparedStatement оборачивается, только если включено хотя бы одно из них, иначе возвращается исходный объект
+public class SqlTracing {
+    private static final Set<String> UPDATE_METHODS = Set.of("execute", "executeUpdate", "executeLargeUpdate");
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    // План выполнения запроса с теми же параметрами; вызывается в обход трассировки
+    public interface Explainer {
+        String explain(String sql, List<Object> params) throws SQLException;
+    }
+
+    private final String database;
+    private final Explainer explainer;
+    private volatile long slowThresholdNanos;
+
+    public SqlTracing(String database, Explainer explainer) {
+        this.database = database;
+        this.explainer = explainer;
+        setSlowQueryThresholdMillis(SlowQueryLog.defaultThresholdMillis());
+    }
+
+    // 0 или меньше - журнал медленных запросов выключен
+    public void setSlowQueryThresholdMillis(long millis) {
+        slowThresholdNanos = millis <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public PreparedStatement trace(PreparedStatement pstmt, String sql) {
+        if (slowThresholdNanos == 0 && !new SqlStatementEvent().isEnabled()) {
+            return pstmt;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(SqlTracing.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new StatementHandler(pstmt, sql));
+    }
+
+    public Execution begin(String sql) {
+        return new Execution(sql, List.of());
+    }
+
+    // Только запросы, для которых EXPLAIN имеет смысл; DDL и вставки пропускаются
+    public static boolean isExplainable(String sql) {
+        String head = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return head.startsWith("SELECT") || head.startsWith("WITH")
+                || head.startsWith("UPDATE") || head.startsWith("DELETE");
+    }
+
+    public static void bind(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    // Одно выполнение: замер для JFR и проверка порога медленного запроса
+    public class Execution {
+        private final String sql;
+        private final List<Object> params;
+        private final SqlStatementEvent event = new SqlStatementEvent();
+        private final long startNanos;
+
+        Execution(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = params;
+            event.begin();
+            startNanos = System.nanoTime();
+        }
+
+        public void complete(long rows) {
+            long nanos = System.nanoTime() - startNanos;
+            event.complete(database, sql, rows);
+            long threshold = slowThresholdNanos;
+            if (threshold > 0 && nanos >= threshold) {
+                SlowQueryLog.log(database, sql, SlowQueryLog.formatParams(params), nanos, rows, plan());
+            }
+        }
+
+        private String plan() {
+            if (!isExplainable(sql)) {
+                return null;
+            }
+            try {
+                return explainer.explain(sql, params);
+            } catch (SQLException e) {
+                return "EXPLAIN failed: " + e.getMessage();
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final PreparedStatement target;
+        private final String sql;
+        // Текущие параметры по индексам (с 1); для пакета - параметры последней строки
+        private final List<Object> params = new ArrayList<>();
+        private int batchSize;
+
+        StatementHandler(PreparedStatement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                rememberParam((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            }
+
+            // Методы Statement с текстом SQL в аргументах трассируются по своему тексту
+            String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            if (name.equals("executeQuery")) {
+                Execution execution = new Execution(text, new ArrayList<>(params));
+                ResultSet rs = (ResultSet) SqlTracing.invoke(target, method, args);
+                // Замер закрывается вместе с ResultSet, чтобы учесть строки и время их чтения
+                return Proxy.newProxyInstance(SqlTracing.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ResultSetHandler(rs, execution));
+            }
+            if (UPDATE_METHODS.contains(name)) {
+                Execution execution = new Execution(text, new ArrayList<>(params));
+                Object result = SqlTracing.invoke(target, method, args);
+                execution.complete(rowsOf(result));
+                return result;
+            }
+            if (BATCH_METHODS.contains(name)) {
+                Execution execution = new Execution(text + " /* batch of " + batchSize + " */", List.of());
+                batchSize = 0;
+                Object result = SqlTracing.invoke(target, method, args);
+                execution.complete(rowsOf(result));
+                return result;
+            }
+            return SqlTracing.invoke(target, method, args);
+        }
+
+        private void rememberParam(int index, Object value) {
+            while (params.size() < index) {
+                params.add(null);
+            }
+            params.set(index - 1, value);
+        }
+
+        private long rowsOf(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Execution execution;
+        private long rows;
+        private boolean completed;
+
+        ResultSetHandler(ResultSet target, Execution execution) {
+            this.target = target;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlTracing.invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            } else if (method.getName().equals("close") && !completed) {
+                completed = true;
+                execution.complete(rows);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.c1;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Декоратор MovieDAO для общего DAO из DAOFactory: все вызовы идут под одной блокировкой.
+// Реализации не потокобезопасны: у H2/SQLite одно соединение с переключаемым autoCommit,
+// у CSV - индексы и карты в памяти; а DAO одновременно используют поток UI, фоновое подключение и напоминания
+public class SynchronizedMovieDAO implements MovieDAO {
+    private final MovieDAO delegate;
+    private final Lock lock = new ReentrantLock();
+
+    public SynchronizedMovieDAO(MovieDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void locked(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addMovie(Movie movie) {
+        locked(() -> delegate.addMovie(movie));
+    }
+
+    @Override
+    public void addMovies(List<Movie> movies) {
+        locked(() -> delegate.addMovies(movies));
+    }
+
+    // Загрузка целиком под блокировкой: другие потоки не видят таблицу с отложенным индексом
+    @Override
+    public void bulkLoad(Runnable load) {
+        locked(() -> delegate.bulkLoad(load));
+    }
+
+    @Override
+    public boolean updateMovie(Movie movie) {
+        return locked(() -> delegate.updateMovie(movie));
+    }
+
+    @Override
+    public void deleteMovie(int id) {
+        locked(() -> delegate.deleteMovie(id));
+    }
+
+    @Override
+    public List<Movie> getAllMovies() {
+        return locked(delegate::getAllMovies);
+    }
+
+    @Override
+    public List<Movie> smartSearch(Genre genre, double minRating, int minYear) {
+        return locked(() -> delegate.smartSearch(genre, minRating, minYear));
+    }
+
+    @Override
+    public List<Movie> searchByTitle(String query, int limit) {
+        return locked(() -> delegate.searchByTitle(query, limit));
+    }
+
+    @Override
+    public List<Movie> find(MovieQuery query) {
+        return locked(() -> delegate.find(query));
+    }
+
+    @Override
+    public Map<Integer, List<Movie>> topK(Facet groupBy, SortField metric, int k) {
+        return locked(() -> delegate.topK(groupBy, metric, k));
+    }
+
+    @Override
+    public FacetResult facetedSearch(FacetFilter filter) {
+        return locked(() -> delegate.facetedSearch(filter));
+    }
+
+    @Override
+    public GenreDAO getGenreDAO() {
+        return delegate.getGenreDAO();
+    }
+
+    @Override
+    public DirectorDAO getDirectorDAO() {
+        return delegate.getDirectorDAO();
+    }
+
+    @Override
+    public double getDirectorViewPercentage(Director director) {
+        return locked(() -> delegate.getDirectorViewPercentage(director));
+    }
+
+    @Override
+    public List<Movie> findDuplicatesByTmdb() {
+        return locked(delegate::findDuplicatesByTmdb);
+    }
+
+    @Override
+    public List<List<Movie>> findDuplicateClusters() {
+        return locked(delegate::findDuplicateClusters);
+    }
+
+    @Override
+    public void importFromCSV(String filePath) {
+        locked(() -> delegate.importFromCSV(filePath));
+    }
+
+    @Override
+    public void exportToCSV(String filePath) {
+        locked(() -> delegate.exportToCSV(filePath));
+    }
+
+    @Override
+    public String getCurrentFilePath() {
+        return locked(delegate::getCurrentFilePath);
+    }
+
+    @Override
+    public void setMovieSchedule(int movieId, LocalDate plannedDate) {
+        locked(() -> delegate.setMovieSchedule(movieId, plannedDate));
+    }
+
+    @Override
+    public void updateMovieSchedule(int movieId, LocalDate newDate, String reason) {
+        locked(() -> delegate.updateMovieSchedule(movieId, newDate, reason));
+    }
+
+    @Override
+    public MovieSchedule getMovieSchedule(int movieId) {
+        return locked(() -> delegate.getMovieSchedule(movieId));
+    }
+
+    @Override
+    public List<Movie> getMoviesWithUpcomingDeadlines(int daysBefore) {
+        return locked(() -> delegate.getMoviesWithUpcomingDeadlines(daysBefore));
+    }
+
+    @Override
+    public List<MovieSchedule> getSchedulesBetween(LocalDate from, LocalDate to) {
+        return locked(() -> delegate.getSchedulesBetween(from, to));
+    }
+
+    @Override
+    public void markMovieAsWatched(int movieId) {
+        locked(() -> delegate.markMovieAsWatched(movieId));
+    }
+
+    @Override
+    public void markRemindersSent(int[] movieIds) {
+        locked(() -> delegate.markRemindersSent(movieIds));
+    }
+
+    @Override
+    public List<ScheduleChange> getScheduleHistory(int movieId) {
+        return locked(() -> delegate.getScheduleHistory(movieId));
+    }
+
+    @Override
+    public void addSchedules(List<MovieSchedule> schedules) {
+        locked(() -> delegate.addSchedules(schedules));
+    }
+
+    // Подписчики вызываются асинхронно из ChangeNotifier, не под этой блокировкой
+    @Override
+    public void addChangeListener(MovieChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(MovieChangeListener listener) {
+        delegate.removeChangeListener(listener);
+    }
+
+    @Override
+    public void close() {
+        locked(delegate::close);
+    }
+}
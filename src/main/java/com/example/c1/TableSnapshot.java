@@ -0,0 +1,93 @@
+package com.example.c1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+// Снимок последней показанной таблицы: источник, первые строки и их сроки.
+// Пишется при закрытии окна, при следующем запуске показывается сразу, пока источник подключается в фоне.
+// Размер ограничен MAX_ROWS, поэтому время чтения не зависит от размера медиатеки
+public class TableSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final int MAX_ROWS = 1000;
+    private static final String DEFAULT_PATH = "table-snapshot.ser";
+
+    private final DAOFactory.DataSourceType source;
+    private final ArrayList<Movie> movies;
+    private final HashMap<Integer, MovieSchedule> schedules;
+
+    private TableSnapshot(DAOFactory.DataSourceType source, ArrayList<Movie> movies,
+                          HashMap<Integer, MovieSchedule> schedules) {
+        this.source = source;
+        this.movies = movies;
+        this.schedules = schedules;
+    }
+
+    // Сроки читаются из DAO сейчас, пока источник ещё открыт
+    public static TableSnapshot capture(DAOFactory.DataSourceType source, List<Movie> rows, MovieDAO movieDAO) {
+        ArrayList<Movie> movies = new ArrayList<>(rows.subList(0, Math.min(rows.size(), MAX_ROWS)));
+        HashMap<Integer, MovieSchedule> schedules = new HashMap<>();
+        for (Movie movie : movies) {
+            MovieSchedule schedule = movieDAO.getMovieSchedule(movie.getId());
+            if (schedule != null) {
+                schedules.put(movie.getId(), schedule);
+            }
+        }
+        return new TableSnapshot(source, movies, schedules);
+    }
+
+    public DAOFactory.DataSourceType getSource() {
+        return source;
+    }
+
+    public List<Movie> getMovies() {
+        return movies;
+    }
+
+    public MovieSchedule getSchedule(int movieId) {
+        return schedules.get(movieId);
+    }
+
+    public static String defaultPath() {
+        return System.getProperty("c1.snapshot", DEFAULT_PATH);
+    }
+
+    // Сначала во временный файл, чтобы прерванная запись не испортила прежний снимок
+    public void save(String path) {
+        File target = new File(path);
+        File temp = new File(path + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeObject(this);
+        } catch (IOException e) {
+            System.err.println("Error saving table snapshot: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (target.exists() && !target.delete() || !temp.renameTo(target)) {
+            System.err.println("Error replacing table snapshot: " + path);
+        }
+    }
+
+    // null, если снимка нет или он не читается (например, после несовместимого изменения классов)
+    public static TableSnapshot load(String path) {
+        File file = new File(path);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (TableSnapshot) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("Error loading table snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+}
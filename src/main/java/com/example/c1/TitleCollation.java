@@ -0,0 +1,28 @@
+package com.example.c1;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Сравнение названий по правилам русской локали (латиница и кириллица вперемешку).
+// Ключ Collator считается один раз, дальше сортировка сравнивает только байты
+public final class TitleCollation {
+    // Collator не потокобезопасен, а ключи считаются и из параллельной сортировки
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> {
+        Collator collator = Collator.getInstance(new Locale("ru", "RU"));
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    });
+
+    private TitleCollation() {
+    }
+
+    public static byte[] sortKey(String title) {
+        return COLLATOR.get().getCollationKey(title == null ? "" : title).toByteArray();
+    }
+
+    // Тот же порядок, что у CollationKey.compareTo и у BLOB/VARBINARY в SQLite и H2
+    public static int compare(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+}
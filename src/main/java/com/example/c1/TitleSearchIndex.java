@@ -0,0 +1,241 @@
+package com.example.c1;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Инвертированный индекс по title и originalTitle: точные, префиксные и нечёткие совпадения слов
+public class TitleSearchIndex {
+    // Биграммы, а не триграммы: перестановка двух букв ("drak"/"dark") не оставляет общих триграмм
+    private static final int GRAM_SIZE = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Короткий префикс может раскрыться в огромное число слов, берём только первые
+    private static final int MAX_PREFIX_TOKENS = 256;
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+
+    private final TreeMap<String, IntHashMap<Movie>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> gramsToTokens = new HashMap<>();
+    private final IntHashMap<Movie> moviesById = new IntHashMap<>();
+
+    public TitleSearchIndex() {
+    }
+
+    public TitleSearchIndex(List<Movie> movies) {
+        movies.forEach(this::add);
+    }
+
+    public void add(Movie movie) {
+        remove(movie.getId());
+        moviesById.put(movie.getId(), movie);
+        for (String token : tokens(movie)) {
+            IntHashMap<Movie> posting = postings.get(token);
+            if (posting == null) {
+                posting = new IntHashMap<>(1);
+                postings.put(token, posting);
+                for (String gram : grams(token)) {
+                    gramsToTokens.computeIfAbsent(gram, g -> new HashSet<>()).add(token);
+                }
+            }
+            posting.put(movie.getId(), movie);
+        }
+    }
+
+    public void remove(int movieId) {
+        Movie movie = moviesById.remove(movieId);
+        if (movie == null) {
+            return;
+        }
+        for (String token : tokens(movie)) {
+            IntHashMap<Movie> posting = postings.get(token);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(movieId);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+                for (String gram : grams(token)) {
+                    Set<String> tokens = gramsToTokens.get(gram);
+                    if (tokens != null && tokens.remove(token) && tokens.isEmpty()) {
+                        gramsToTokens.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        gramsToTokens.clear();
+        moviesById.clear();
+    }
+
+    // Все слова запроса должны совпасть; последнее слово ищется ещё и как префикс
+    public List<Movie> search(String query, int limit) {
+        String normalized = DuplicateDetector.normalize(query);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] terms = normalized.split(" ");
+
+        IntHashMap<Hit> hits = null;
+        for (int t = 0; t < terms.length; t++) {
+            IntHashMap<Hit> termHits = matchTerm(terms[t], t == terms.length - 1);
+            if (hits == null) {
+                hits = termHits;
+            } else {
+                IntHashMap<Hit> intersection = new IntHashMap<>(Math.min(hits.size(), termHits.size()));
+                IntHashMap<Hit> previous = hits;
+                termHits.forEachValue(hit -> {
+                    Hit other = previous.get(hit.movie.getId());
+                    if (other != null) {
+                        hit.score += other.score;
+                        intersection.put(hit.movie.getId(), hit);
+                    }
+                });
+                hits = intersection;
+            }
+            if (hits.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<Hit> ranked = hits.values();
+        ranked.sort(Comparator.comparingInt((Hit hit) -> -hit.score)
+                .thenComparingInt(hit -> hit.movie.getTitle().length())
+                .thenComparing(hit -> hit.movie.getTitle()));
+
+        List<Movie> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).movie);
+        }
+        return result;
+    }
+
+    private IntHashMap<Hit> matchTerm(String term, boolean prefix) {
+        IntHashMap<Hit> hits = new IntHashMap<>();
+        collect(hits, postings.get(term), EXACT_SCORE);
+
+        if (prefix && term.length() >= MIN_PREFIX_LENGTH) {
+            int expanded = 0;
+            for (IntHashMap<Movie> posting : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                if (++expanded > MAX_PREFIX_TOKENS) {
+                    break;
+                }
+                collect(hits, posting, PREFIX_SCORE);
+            }
+        }
+
+        // Нечёткий поиск нужен только для слов, которых нет в словаре индекса
+        if (term.length() >= MIN_FUZZY_LENGTH && !postings.containsKey(term)) {
+            int maxEdits = term.length() >= 8 ? 2 : 1;
+            Set<String> termGrams = grams(term);
+            // Одна правка затрагивает не больше трёх биграмм слова
+            int minShared = Math.max(1, termGrams.size() - 3 * maxEdits);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : termGrams) {
+                for (String token : gramsToTokens.getOrDefault(gram, Set.of())) {
+                    shared.merge(token, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+                String candidate = entry.getKey();
+                if (entry.getValue() >= minShared
+                        && !candidate.equals(term)
+                        && Math.abs(candidate.length() - term.length()) <= maxEdits
+                        && editDistance(term, candidate, maxEdits) <= maxEdits) {
+                    collect(hits, postings.get(candidate), FUZZY_SCORE);
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static void collect(IntHashMap<Hit> hits, IntHashMap<Movie> posting, int score) {
+        if (posting == null) {
+            return;
+        }
+        posting.forEachValue(movie -> {
+            Hit hit = hits.get(movie.getId());
+            if (hit == null) {
+                hits.put(movie.getId(), new Hit(movie, score));
+            } else if (hit.score < score) {
+                hit.score = score;
+            }
+        });
+    }
+
+    private static Set<String> tokens(Movie movie) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addTokens(tokens, movie.getTitle());
+        addTokens(tokens, movie.getOriginalTitle());
+        return tokens;
+    }
+
+    private static void addTokens(Set<String> tokens, String title) {
+        String normalized = DuplicateDetector.normalize(title);
+        if (!normalized.isEmpty()) {
+            for (String token : normalized.split(" ")) {
+                tokens.add(token);
+            }
+        }
+    }
+
+    private static Set<String> grams(String token) {
+        Set<String> grams = new HashSet<>();
+        String padded = " " + token + " ";
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    // Расстояние Дамерау-Левенштейна (перестановка соседних букв - одна правка)
+    // с ранним выходом, как только превышен порог
+    private static int editDistance(String a, String b, int max) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static class Hit {
+        private final Movie movie;
+        private int score;
+
+        Hit(Movie movie, int score) {
+            this.movie = movie;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.c1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+// Отбор K лучших за один проход: ограниченная куча, в вершине которой худший из отобранных.
+// O(n log k) по времени и O(k) памяти на группу
+public class TopK {
+
+    private TopK() {
+    }
+
+    // Первые k фильмов в порядке order
+    public static List<Movie> of(Collection<Movie> movies, Comparator<Movie> order, int k) {
+        PriorityQueue<Movie> heap = new PriorityQueue<>(Math.max(1, Math.min(k, movies.size())), order.reversed());
+        for (Movie movie : movies) {
+            offer(heap, movie, order, k);
+        }
+        return drain(heap, order);
+    }
+
+    // Первые k фильмов в каждой группе; группы упорядочены по значению фасета
+    public static Map<Integer, List<Movie>> perGroup(Collection<Movie> movies, Facet groupBy, Comparator<Movie> order, int k) {
+        IntHashMap<PriorityQueue<Movie>> heaps = new IntHashMap<>();
+        for (Movie movie : movies) {
+            PriorityQueue<Movie> heap = heaps.computeIfAbsent(groupBy.valueOf(movie),
+                    g -> new PriorityQueue<>(Math.max(1, Math.min(k, 16)), order.reversed()));
+            offer(heap, movie, order, k);
+        }
+
+        Map<Integer, List<Movie>> result = new TreeMap<>();
+        heaps.forEachValue(heap -> {
+            if (!heap.isEmpty()) {
+                result.put(groupBy.valueOf(heap.peek()), drain(heap, order));
+            }
+        });
+        return result;
+    }
+
+    private static void offer(PriorityQueue<Movie> heap, Movie movie, Comparator<Movie> order, int k) {
+        if (k <= 0) {
+            return;
+        }
+        if (heap.size() < k) {
+            heap.add(movie);
+        } else if (order.compare(movie, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(movie);
+        }
+    }
+
+    private static List<Movie> drain(PriorityQueue<Movie> heap, Comparator<Movie> order) {
+        List<Movie> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
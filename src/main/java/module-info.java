@@ -2,6 +2,10 @@ module com.example.c1 {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql.rowset;
+    requires java.management;
+    requires jdk.jfr;
+    requires java.logging;
+    requires jdk.httpserver;
 
 
     opens com.example.c1 to javafx.fxml;